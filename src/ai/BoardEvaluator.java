@@ -0,0 +1,195 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+import java.util.Arrays;
+
+import model.BitBoard;
+
+/**
+ * Scores boards as a weighted sum of Feature values.
+ * 
+ * Height based features come from the column heights a BitBoard keeps up
+ * to date; holes and transitions come from one pass over the row masks,
+ * handling a whole row per step with bit operations.  Walls count as
+ * filled when measuring wells and row transitions.  An evaluator is
+ * immutable and may be shared between threads.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class BoardEvaluator {
+
+    /**
+     * Weights that play well on a standard board, indexed by Feature.
+     */
+    private static final double[] DEFAULT_WEIGHTS = {
+        -0.4, // AGGREGATE_HEIGHT
+        0, // MAX_HEIGHT
+        -0.5, // HOLES
+        -0.18, // BUMPINESS
+        0, // WELLS
+        -0.1, // ROW_TRANSITIONS
+        -0.3, // COLUMN_TRANSITIONS
+        0.5, // LINES_CLEARED
+    };
+
+    /**
+     * The weight of each feature, indexed by Feature.
+     */
+    private final double[] myWeights;
+
+    /**
+     * Constructs an evaluator with the default weights.
+     */
+    public BoardEvaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Constructs an evaluator.
+     * 
+     * @param theWeights The weight of each feature, indexed by Feature.
+     * @throws IllegalArgumentException if there is not one weight per feature.
+     */
+    public BoardEvaluator(final double... theWeights) {
+        if (theWeights.length != Feature.COUNT) {
+            throw new IllegalArgumentException("Expected " + Feature.COUNT
+                                               + " weights but got " + theWeights.length);
+        }
+        myWeights = theWeights.clone();
+    }
+
+    /**
+     * Returns a copy of the default weights.
+     * 
+     * @return The default weights, indexed by Feature.
+     */
+    public static double[] getDefaultWeights() {
+        return DEFAULT_WEIGHTS.clone();
+    }
+
+    /**
+     * Returns a copy of the weights of this evaluator.
+     * 
+     * @return The weights, indexed by Feature.
+     */
+    public double[] getWeights() {
+        return myWeights.clone();
+    }
+
+    /**
+     * Scores a board.  Higher is better.
+     * 
+     * @param theBlocks The frozen blocks after a placement.
+     * @param theLines The lines the placement cleared.
+     * @return The weighted sum of the features.
+     */
+    public double evaluate(final BitBoard theBlocks, final int theLines) {
+        return scan(theBlocks, theLines, myWeights, null);
+    }
+
+    /**
+     * Measures every feature of a board.
+     * 
+     * @param theBlocks The frozen blocks after a placement.
+     * @param theLines The lines the placement cleared.
+     * @param theValues Receives the value of each feature, indexed by Feature.
+     */
+    public static void measure(final BitBoard theBlocks, final int theLines,
+                               final int[] theValues) {
+        scan(theBlocks, theLines, null, theValues);
+    }
+
+    // private helper methods
+
+    /**
+     * Measures every feature of a board in one pass, allocating nothing,
+     * and weighs or stores them.
+     * 
+     * @param theBlocks The frozen blocks after a placement.
+     * @param theLines The lines the placement cleared.
+     * @param theWeights The weight of each feature, indexed by Feature, or
+     *        null to weigh none.
+     * @param theValues Receives the value of each feature, indexed by
+     *        Feature, or null.
+     * @return The weighted sum of the features, or 0 without weights.
+     */
+    private static double scan(final BitBoard theBlocks, final int theLines,
+                               final double[] theWeights, final int[] theValues) {
+        final int width = theBlocks.getWidth();
+        final int full = theBlocks.getFullRow();
+
+        int aggregate = 0;
+        int bumpiness = 0;
+        int wells = 0;
+        for (int x = 0; x < width; x++) {
+            final int height = theBlocks.getColumnHeight(x);
+            aggregate += height;
+            int side = Integer.MAX_VALUE;
+            if (x > 0) {
+                side = theBlocks.getColumnHeight(x - 1);
+                bumpiness += Math.abs(height - side);
+            }
+            if (x + 1 < width) {
+                side = Math.min(side, theBlocks.getColumnHeight(x + 1));
+            }
+            if (side != Integer.MAX_VALUE && side > height) {
+                wells += (side - height) * (side - height + 1) / 2;
+            }
+        }
+
+        final int stack = theBlocks.getStackHeight();
+        int holes = 0;
+        int rowTransitions = 0;
+        int columnTransitions = 0;
+        int covered = 0;
+        int above = 0;
+        for (int y = stack - 1; y >= 0; y--) {
+            final int row = theBlocks.getRow(y);
+            holes += Integer.bitCount(~row & covered & full);
+            covered |= row;
+            // compare each cell with its right neighbor, the right wall being
+            // filled, then the left wall with the first cell
+            rowTransitions += Integer.bitCount((row ^ (row >>> 1 | 1 << (width - 1))) & full)
+                              + (~row & 1);
+            columnTransitions += Integer.bitCount((row ^ above) & full);
+            above = row;
+        }
+        // the bottom row against the floor
+        columnTransitions += Integer.bitCount(~above & full);
+
+        if (theValues != null) {
+            theValues[Feature.AGGREGATE_HEIGHT.ordinal()] = aggregate;
+            theValues[Feature.MAX_HEIGHT.ordinal()] = stack;
+            theValues[Feature.HOLES.ordinal()] = holes;
+            theValues[Feature.BUMPINESS.ordinal()] = bumpiness;
+            theValues[Feature.WELLS.ordinal()] = wells;
+            theValues[Feature.ROW_TRANSITIONS.ordinal()] = rowTransitions;
+            theValues[Feature.COLUMN_TRANSITIONS.ordinal()] = columnTransitions;
+            theValues[Feature.LINES_CLEARED.ordinal()] = theLines;
+        }
+        double result = 0;
+        if (theWeights != null) {
+            result = theWeights[Feature.AGGREGATE_HEIGHT.ordinal()] * aggregate
+                     + theWeights[Feature.MAX_HEIGHT.ordinal()] * stack
+                     + theWeights[Feature.HOLES.ordinal()] * holes
+                     + theWeights[Feature.BUMPINESS.ordinal()] * bumpiness
+                     + theWeights[Feature.WELLS.ordinal()] * wells
+                     + theWeights[Feature.ROW_TRANSITIONS.ordinal()] * rowTransitions
+                     + theWeights[Feature.COLUMN_TRANSITIONS.ordinal()] * columnTransitions
+                     + theWeights[Feature.LINES_CLEARED.ordinal()] * theLines;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardEvaluator" + Arrays.toString(myWeights);
+    }
+
+}
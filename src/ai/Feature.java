@@ -0,0 +1,66 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+/**
+ * The board features a BoardEvaluator measures.  The ordinal of each
+ * feature indexes its value and its weight.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public enum Feature {
+
+    /**
+     * The sum of the column heights.
+     */
+    AGGREGATE_HEIGHT,
+
+    /**
+     * The height of the tallest column.
+     */
+    MAX_HEIGHT,
+
+    /**
+     * Empty cells with a frozen block somewhere above them.
+     */
+    HOLES,
+
+    /**
+     * The sum of the height differences of neighboring columns.
+     */
+    BUMPINESS,
+
+    /**
+     * The sum over open wells of 1 + 2 + ... + depth, so deep wells
+     * cost more than several shallow ones.
+     */
+    WELLS,
+
+    /**
+     * Changes between filled and empty cells along each row, counting the
+     * walls as filled.
+     */
+    ROW_TRANSITIONS,
+
+    /**
+     * Changes between filled and empty cells up each column, counting the
+     * floor as filled.
+     */
+    COLUMN_TRANSITIONS,
+
+    /**
+     * Lines cleared by the placement that produced the board.
+     */
+    LINES_CLEARED;
+
+    /**
+     * The number of features.
+     */
+    public static final int COUNT = values().length;
+
+}
@@ -0,0 +1,114 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+import java.util.Collections;
+import java.util.List;
+
+import model.BitBoard;
+import model.BoardCommand;
+import model.PlacementFinder;
+import model.Rotation;
+import model.TetrisPiece;
+
+/**
+ * Chooses where to place each piece by scoring every reachable placement
+ * with a BoardEvaluator.
+ * 
+ * A bot reuses its search buffers between decisions, so it is not thread
+ * safe; keep one bot per thread.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class HeuristicBot {
+
+    /**
+     * Finds the placements of each piece.
+     */
+    private final PlacementFinder myFinder;
+
+    /**
+     * Scores the board after each placement.
+     */
+    private final BoardEvaluator myEvaluator;
+
+    /**
+     * The board each placement is tried on.
+     */
+    private final BitBoard myScratch;
+
+    /**
+     * Receives the rows cleared by a placement.
+     */
+    private final int[] myCleared;
+
+    /**
+     * Constructs a bot for boards of one size.
+     * 
+     * @param theWidth Width of the boards played.
+     * @param theHeight Height of the boards played.
+     * @param theEvaluator The heuristic scoring placements.
+     */
+    public HeuristicBot(final int theWidth, final int theHeight,
+                        final BoardEvaluator theEvaluator) {
+        myFinder = new PlacementFinder(theWidth, theHeight);
+        myEvaluator = theEvaluator;
+        myScratch = new BitBoard(theWidth, theHeight);
+        myCleared = new int[theHeight];
+    }
+
+    /**
+     * Chooses the best placement of a piece.
+     * 
+     * @param theBlocks The frozen blocks.
+     * @param thePiece The piece to place.
+     * @param theRotation The rotation the piece starts in.
+     * @param theX The board column the piece starts at.
+     * @param theY The board row the piece starts at.
+     * @return The commands that move the piece to the chosen placement and
+     *         lock it, or an empty list if the piece cannot be placed.
+     */
+    public List<BoardCommand> decide(final BitBoard theBlocks, final TetrisPiece thePiece,
+                                     final Rotation theRotation, final int theX,
+                                     final int theY) {
+        final int count = myFinder.find(theBlocks, thePiece, theRotation, theX, theY);
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            final double score = score(theBlocks, i);
+            if (best < 0 || score > bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        List<BoardCommand> result = Collections.emptyList();
+        if (best >= 0) {
+            result = myFinder.getPath(best);
+        }
+        return result;
+    }
+
+    /**
+     * Scores one placement found by the last search.  Placements that
+     * leave blocks above the board end the game and score lowest.
+     * 
+     * @param theBlocks The frozen blocks.
+     * @param theIndex The index of the placement.
+     * @return The score of the board after the placement.
+     */
+    private double score(final BitBoard theBlocks, final int theIndex) {
+        myScratch.copyFrom(theBlocks);
+        double result = Double.NEGATIVE_INFINITY;
+        if (myScratch.place(myFinder.getPiece(), myFinder.getRotation(theIndex),
+                            myFinder.getX(theIndex), myFinder.getY(theIndex))) {
+            result = myEvaluator.evaluate(myScratch, myScratch.clearCompleteRows(myCleared));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import model.Board;
+import model.BoardCommand;
+import model.GameEngine;
+
+import simulation.Policy;
+
+/**
+ * Plays each piece where a HeuristicBot places it.
+ * 
+ * The games of a batch run on many threads, so each thread plays with its
+ * own bot; the evaluator is immutable and shared.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class HeuristicPolicy implements Policy {
+
+    /**
+     * The heuristic scoring placements.
+     */
+    private final BoardEvaluator myEvaluator;
+
+    /**
+     * The bot of each thread, created for the first board played.
+     */
+    private final ThreadLocal<HeuristicBot> myBots;
+
+    /**
+     * Constructs a policy.
+     * 
+     * @param theEvaluator The heuristic scoring placements.
+     */
+    public HeuristicPolicy(final BoardEvaluator theEvaluator) {
+        myEvaluator = theEvaluator;
+        myBots = new ThreadLocal<HeuristicBot>();
+    }
+
+    /**
+     * Returns the heuristic scoring placements.
+     * 
+     * @return The evaluator.
+     */
+    public BoardEvaluator getEvaluator() {
+        return myEvaluator;
+    }
+
+    @Override
+    public void playPiece(final GameEngine theEngine, final SplittableRandom theRandom) {
+        final Board board = theEngine.getBoard();
+        HeuristicBot bot = myBots.get();
+        if (bot == null) {
+            bot = new HeuristicBot(board.getWidth(), board.getHeight(), myEvaluator);
+            myBots.set(bot);
+        }
+        final List<BoardCommand> moves =
+            bot.decide(board.getFrozenBlocks(), board.getCurrentPiece(),
+                       board.getCurrentRotation(), board.getCurrentX(), board.getCurrentY());
+        for (final BoardCommand command : moves) {
+            theEngine.execute(command);
+        }
+    }
+
+}
@@ -0,0 +1,425 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.BitBoard;
+import model.BoardCommand;
+import model.PlacementFinder;
+import model.Rotation;
+import model.TetrisPiece;
+
+/**
+ * Chooses where to place each piece by looking one piece ahead.
+ * 
+ * Every reachable placement of the current piece is scored with a
+ * BoardEvaluator, and the best of them, up to the beam width, are searched
+ * again with the next piece.  A first placement is worth the best board the
+ * next piece can reach from it.  The second ply is split into one task per
+ * first placement and run on a ForkJoinPool, so idle workers steal the
+ * remaining placements.
+ * 
+ * A beam at least as wide as the number of placements searches the full
+ * tree, roughly 34 by 34 boards for the larger pieces.
+ * 
+ * The score of each second ply search is kept in a TranspositionTable,
+ * keyed on the board after the first placement, the next piece and the
+ * lines cleared, so a board reached again by another placement or another
+ * decision is not searched twice.  A table may be shared by the searches
+ * of one BoardEvaluator.
+ * 
+ * A search reuses its first ply buffers between decisions, so it is not
+ * thread safe; keep one search per thread.  The tasks of the second ply use
+ * buffers kept per worker thread.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class LookaheadSearch {
+
+    /**
+     * The beam width used when none is given.
+     */
+    public static final int DEFAULT_BEAM_WIDTH = 8;
+
+    /**
+     * The depth recorded for a second ply search.
+     */
+    private static final int BRANCH_DEPTH = 1;
+
+    /**
+     * The seed of the position keys.
+     */
+    private static final long HASH_SEED = 305;
+
+    /**
+     * Scores the boards.
+     */
+    private final BoardEvaluator myEvaluator;
+
+    /**
+     * The number of first placements searched with the next piece.
+     */
+    private final int myBeamWidth;
+
+    /**
+     * The pool running the second ply.
+     */
+    private final ForkJoinPool myPool;
+
+    /**
+     * The buffers of the first ply.
+     */
+    private final Ply myRoot;
+
+    /**
+     * The buffers of the second ply, one set per worker thread.
+     */
+    private final ThreadLocal<Ply> myPlies;
+
+    /**
+     * Hashes the positions searched by the second ply.
+     */
+    private final ZobristHash myHash;
+
+    /**
+     * The scores of the positions searched by the second ply.
+     */
+    private final TranspositionTable myTable;
+
+    /**
+     * Constructs a search with the default beam width on the common pool.
+     * 
+     * @param theWidth Width of the boards played.
+     * @param theHeight Height of the boards played.
+     * @param theEvaluator The heuristic scoring placements.
+     */
+    public LookaheadSearch(final int theWidth, final int theHeight,
+                           final BoardEvaluator theEvaluator) {
+        this(theWidth, theHeight, theEvaluator, DEFAULT_BEAM_WIDTH, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a search with its own transposition table.
+     * 
+     * @param theWidth Width of the boards played.
+     * @param theHeight Height of the boards played.
+     * @param theEvaluator The heuristic scoring placements.
+     * @param theBeamWidth The number of first placements searched with the
+     *        next piece.
+     * @param thePool The pool running the second ply.
+     * @throws IllegalArgumentException If the beam width is less than 1.
+     */
+    public LookaheadSearch(final int theWidth, final int theHeight,
+                           final BoardEvaluator theEvaluator, final int theBeamWidth,
+                           final ForkJoinPool thePool) {
+        this(theWidth, theHeight, theEvaluator, theBeamWidth, thePool,
+             new TranspositionTable());
+    }
+
+    /**
+     * Constructs a search.
+     * 
+     * @param theWidth Width of the boards played.
+     * @param theHeight Height of the boards played.
+     * @param theEvaluator The heuristic scoring placements.
+     * @param theBeamWidth The number of first placements searched with the
+     *        next piece.
+     * @param thePool The pool running the second ply.
+     * @param theTable The scores of searched positions, filled only by
+     *        searches using the same evaluator.
+     * @throws IllegalArgumentException If the beam width is less than 1.
+     */
+    public LookaheadSearch(final int theWidth, final int theHeight,
+                           final BoardEvaluator theEvaluator, final int theBeamWidth,
+                           final ForkJoinPool thePool, final TranspositionTable theTable) {
+        if (theBeamWidth < 1) {
+            throw new IllegalArgumentException("Beam width must be at least 1: "
+                                               + theBeamWidth);
+        }
+        myEvaluator = theEvaluator;
+        myBeamWidth = theBeamWidth;
+        myPool = thePool;
+        myTable = theTable;
+        myHash = new ZobristHash(theWidth, theHeight, HASH_SEED);
+        myRoot = new Ply(theWidth, theHeight);
+        myPlies = new ThreadLocal<Ply>() {
+            @Override
+            protected Ply initialValue() {
+                return new Ply(theWidth, theHeight);
+            }
+        };
+    }
+
+    /**
+     * Returns the number of first placements searched with the next piece.
+     * 
+     * @return The beam width.
+     */
+    public int getBeamWidth() {
+        return myBeamWidth;
+    }
+
+    /**
+     * Chooses the best placement of a piece, looking ahead at the next one.
+     * 
+     * @param theBlocks The frozen blocks.
+     * @param thePiece The piece to place.
+     * @param theRotation The rotation the piece starts in.
+     * @param theX The board column the piece starts at.
+     * @param theY The board row the piece starts at.
+     * @param theNextPiece The piece that follows, or null to search one ply.
+     * @return The commands that move the piece to the chosen placement and
+     *         lock it, or an empty list if the piece cannot be placed.
+     */
+    public List<BoardCommand> decide(final BitBoard theBlocks, final TetrisPiece thePiece,
+                                     final Rotation theRotation, final int theX,
+                                     final int theY, final TetrisPiece theNextPiece) {
+        final PlacementFinder finder = myRoot.myFinder;
+        final int count = finder.find(theBlocks, thePiece, theRotation, theX, theY);
+        final int[] order = new int[count];
+        final double[] scores = new double[count];
+        int ranked = 0;
+        for (int i = 0; i < count; i++) {
+            final BitBoard board = myRoot.myScratch;
+            board.copyFrom(theBlocks);
+            if (board.place(thePiece, finder.getRotation(i), finder.getX(i), finder.getY(i))) {
+                final int lines = board.clearCompleteRows(myRoot.myCleared);
+                rank(order, scores, ranked, i, myEvaluator.evaluate(board, lines));
+                ranked++;
+            }
+        }
+        final int width = Math.min(ranked, myBeamWidth);
+        final List<Branch> beam = new ArrayList<Branch>(width);
+        for (int i = 0; i < width; i++) {
+            beam.add(branch(theBlocks, thePiece, order[i], theNextPiece));
+        }
+        List<BoardCommand> result = Collections.emptyList();
+        if (!beam.isEmpty()) {
+            if (theNextPiece != null) {
+                myPool.invoke(new Fork(beam));
+            }
+            result = finder.getPath(best(beam, scores));
+        }
+        return result;
+    }
+
+    // private helper methods
+
+    /**
+     * Inserts a placement into the ranking, best first.
+     * 
+     * @param theOrder The placements ranked so far.
+     * @param theScores The scores of the ranked placements.
+     * @param theRanked The number of placements ranked so far.
+     * @param theIndex The placement to insert.
+     * @param theScore The score of the placement.
+     */
+    private static void rank(final int[] theOrder, final double[] theScores,
+                             final int theRanked, final int theIndex, final double theScore) {
+        int slot = theRanked;
+        while (slot > 0 && theScores[slot - 1] < theScore) {
+            theOrder[slot] = theOrder[slot - 1];
+            theScores[slot] = theScores[slot - 1];
+            slot--;
+        }
+        theOrder[slot] = theIndex;
+        theScores[slot] = theScore;
+    }
+
+    /**
+     * Creates the second ply task of one first placement.
+     * 
+     * @param theBlocks The frozen blocks.
+     * @param thePiece The piece placed.
+     * @param theIndex The placement found by the first ply.
+     * @param theNextPiece The piece that follows.
+     * @return The task.
+     */
+    private Branch branch(final BitBoard theBlocks, final TetrisPiece thePiece,
+                          final int theIndex, final TetrisPiece theNextPiece) {
+        final PlacementFinder finder = myRoot.myFinder;
+        final BitBoard board = theBlocks.copy();
+        board.place(thePiece, finder.getRotation(theIndex), finder.getX(theIndex),
+                    finder.getY(theIndex));
+        final int lines = board.clearCompleteRows(myRoot.myCleared);
+        return new Branch(theIndex, board, lines, theNextPiece);
+    }
+
+    /**
+     * Picks the first placement leading to the best board.  The beam is
+     * ranked by first ply score, so ties go to the better first placement,
+     * and a next piece that cannot be placed anywhere falls back to it.
+     * 
+     * @param theBeam The searched placements, best first.
+     * @param theScores The first ply scores, in beam order.
+     * @return The index of the chosen placement.
+     */
+    private static int best(final List<Branch> theBeam, final double[] theScores) {
+        int result = theBeam.get(0).myIndex;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < theBeam.size(); i++) {
+            final Branch branch = theBeam.get(i);
+            double score = theScores[i];
+            if (branch.myNextPiece != null) {
+                score = branch.getRawResult();
+            }
+            if (score > bestScore) {
+                result = branch.myIndex;
+                bestScore = score;
+            }
+        }
+        return result;
+    }
+
+    // inner classes
+
+    /**
+     * The buffers one thread searches a ply with.
+     */
+    private static final class Ply {
+
+        /**
+         * Finds the placements.
+         */
+        private final PlacementFinder myFinder;
+
+        /**
+         * The board each placement is tried on.
+         */
+        private final BitBoard myScratch;
+
+        /**
+         * Receives the rows cleared by a placement.
+         */
+        private final int[] myCleared;
+
+        /**
+         * Constructs the buffers for boards of one size.
+         * 
+         * @param theWidth Width of the boards played.
+         * @param theHeight Height of the boards played.
+         */
+        private Ply(final int theWidth, final int theHeight) {
+            myFinder = new PlacementFinder(theWidth, theHeight);
+            myScratch = new BitBoard(theWidth, theHeight);
+            myCleared = new int[theHeight];
+        }
+    }
+
+    /**
+     * Runs the branches of the beam in parallel.
+     */
+    @SuppressWarnings("serial")
+    private static final class Fork extends RecursiveTask<Void> {
+
+        /**
+         * The branches to run.
+         */
+        private final List<Branch> myBranches;
+
+        /**
+         * Constructs the task.
+         * 
+         * @param theBranches The branches to run.
+         */
+        private Fork(final List<Branch> theBranches) {
+            super();
+            myBranches = theBranches;
+        }
+
+        @Override
+        protected Void compute() {
+            invokeAll(myBranches);
+            return null;
+        }
+    }
+
+    /**
+     * Scores one first placement by the best board the next piece can
+     * reach from it.
+     */
+    @SuppressWarnings("serial")
+    private final class Branch extends RecursiveTask<Double> {
+
+        /**
+         * The first placement.
+         */
+        private final int myIndex;
+
+        /**
+         * The frozen blocks after the first placement.
+         */
+        private final BitBoard myBoard;
+
+        /**
+         * The rows the first placement cleared.
+         */
+        private final int myLines;
+
+        /**
+         * The piece that follows.
+         */
+        private final TetrisPiece myNextPiece;
+
+        /**
+         * Constructs the task.
+         * 
+         * @param theIndex The first placement.
+         * @param theBoard The frozen blocks after the first placement.
+         * @param theLines The rows the first placement cleared.
+         * @param theNextPiece The piece that follows.
+         */
+        private Branch(final int theIndex, final BitBoard theBoard, final int theLines,
+                       final TetrisPiece theNextPiece) {
+            super();
+            myIndex = theIndex;
+            myBoard = theBoard;
+            myLines = theLines;
+            myNextPiece = theNextPiece;
+        }
+
+        @Override
+        protected Double compute() {
+            final long key = myHash.hash(myBoard, myNextPiece, Rotation.NONE, myLines);
+            double result = myTable.probe(key, BRANCH_DEPTH);
+            if (Double.isNaN(result)) {
+                result = search();
+                myTable.store(key, BRANCH_DEPTH, result);
+            }
+            return result;
+        }
+
+        /**
+         * Searches every placement of the next piece.
+         * 
+         * @return The best score of the boards reached.
+         */
+        private double search() {
+            final Ply ply = myPlies.get();
+            final PlacementFinder finder = ply.myFinder;
+            final BitBoard board = ply.myScratch;
+            final int count = finder.findSpawned(myBoard, myNextPiece);
+            double result = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                board.copyFrom(myBoard);
+                if (board.place(myNextPiece, finder.getRotation(i), finder.getX(i),
+                                finder.getY(i))) {
+                    final int lines = myLines + board.clearCompleteRows(ply.myCleared);
+                    result = Math.max(result, myEvaluator.evaluate(board, lines));
+                }
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers the scores of searched positions, so a search reaching a
+ * position again need not search it again.
+ * 
+ * Positions are stored under the 64 bit keys of a ZobristHash.  The table
+ * is a fixed array of entries sized from a memory budget, addressed by the
+ * low bits of the key.  Each address holds a bucket of two entries: the
+ * first keeps the deepest search stored there and the second always takes
+ * the newest, so deep results survive without the table filling up with
+ * stale ones.
+ * 
+ * The table may be shared between search threads without locking.  An
+ * entry is a check word and a score word; the check word holds the key
+ * exclusive or the score, with the depth in its low bits.  A read whose
+ * two words come from different writes fails the check and is a miss, so
+ * racing writes can lose an entry but never return a wrong score.  The low
+ * bits of the key that hold the depth are covered by the address instead.
+ * 
+ * Scores are only meaningful for the heuristic that produced them, so a
+ * table should be used with one BoardEvaluator.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class TranspositionTable {
+
+    /**
+     * The deepest search an entry can record.
+     */
+    public static final int MAX_DEPTH = 254;
+
+    /**
+     * The memory budget used when none is given, in bytes.
+     */
+    public static final int DEFAULT_BYTES = 1 << 22;
+
+    /**
+     * The words in an entry.
+     */
+    private static final int ENTRY_WORDS = 2;
+
+    /**
+     * The words in a bucket.
+     */
+    private static final int BUCKET_WORDS = 2 * ENTRY_WORDS;
+
+    /**
+     * The bytes in a bucket.
+     */
+    private static final int BUCKET_BYTES = BUCKET_WORDS * Long.BYTES;
+
+    /**
+     * Selects the depth bits of a check word.
+     */
+    private static final long DEPTH_MASK = 0xFF;
+
+    /**
+     * The fewest buckets a table has, enough for the address to cover
+     * every key bit the depth hides.
+     */
+    private static final int MIN_BUCKETS = (int) DEPTH_MASK + 1;
+
+    /**
+     * The smallest memory budget, in bytes.
+     */
+    private static final int MIN_BYTES = MIN_BUCKETS * BUCKET_BYTES;
+
+    /**
+     * The entries; each bucket is a depth preferred entry then an always
+     * replaced entry, each a check word then a score word.
+     */
+    private final AtomicLongArray myWords;
+
+    /**
+     * Selects the bucket of a key.
+     */
+    private final int myBucketMask;
+
+    /**
+     * Constructs a table with the default memory budget.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_BYTES);
+    }
+
+    /**
+     * Constructs a table using at most a memory budget.  The number of
+     * buckets is the largest power of two that fits.
+     * 
+     * @param theBytes The memory budget, in bytes.
+     * @throws IllegalArgumentException if the budget is under 8 KiB.
+     */
+    public TranspositionTable(final long theBytes) {
+        if (theBytes < MIN_BYTES) {
+            throw new IllegalArgumentException("A table needs at least " + MIN_BYTES
+                                               + " bytes: " + theBytes);
+        }
+        final long buckets = Math.min(theBytes / BUCKET_BYTES,
+                                      Integer.MAX_VALUE / BUCKET_WORDS);
+        final int count = Integer.highestOneBit((int) buckets);
+        myBucketMask = count - 1;
+        myWords = new AtomicLongArray(count * BUCKET_WORDS);
+    }
+
+    /**
+     * Returns the number of entries the table holds.
+     * 
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return myWords.length() / ENTRY_WORDS;
+    }
+
+    /**
+     * Looks up the score of a position.
+     * 
+     * @param theKey The hash of the position.
+     * @param theDepth The depth the score must have been searched to.
+     * @return The score stored from a search at least as deep, or NaN if
+     *         there is none.
+     */
+    public double probe(final long theKey, final int theDepth) {
+        final int bucket = bucket(theKey);
+        double result = read(bucket, theKey, theDepth);
+        if (Double.isNaN(result)) {
+            result = read(bucket + ENTRY_WORDS, theKey, theDepth);
+        }
+        return result;
+    }
+
+    /**
+     * Stores the score of a position.  The depth preferred entry of the
+     * bucket is replaced if it holds the same position or a search no
+     * deeper; otherwise the always replaced entry is.
+     * 
+     * @param theKey The hash of the position.
+     * @param theDepth The depth the position was searched to.
+     * @param theScore The score of the position.
+     * @throws IllegalArgumentException if the depth is negative or greater
+     *         than MAX_DEPTH.
+     */
+    public void store(final long theKey, final int theDepth, final double theScore) {
+        if (theDepth < 0 || theDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth out of range: " + theDepth);
+        }
+        final int bucket = bucket(theKey);
+        final long check = myWords.get(bucket);
+        final long score = myWords.get(bucket + 1);
+        int entry = bucket + ENTRY_WORDS;
+        if (matches(check, score, theKey) || depth(check) <= theDepth) {
+            entry = bucket;
+        }
+        final long bits = Double.doubleToRawLongBits(theScore);
+        myWords.set(entry + 1, bits);
+        myWords.set(entry, (theKey ^ bits) & ~DEPTH_MASK | theDepth + 1);
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        for (int i = 0; i < myWords.length(); i++) {
+            myWords.set(i, 0);
+        }
+    }
+
+    // private helper methods
+
+    /**
+     * Returns the first word of the bucket of a key.
+     * 
+     * @param theKey The key.
+     * @return The index of the bucket.
+     */
+    private int bucket(final long theKey) {
+        return ((int) theKey & myBucketMask) * BUCKET_WORDS;
+    }
+
+    /**
+     * Reads one entry.
+     * 
+     * @param theEntry The first word of the entry.
+     * @param theKey The key looked up.
+     * @param theDepth The depth the score must have been searched to.
+     * @return The score of the entry, or NaN if it does not hold the key
+     *         searched deep enough.
+     */
+    private double read(final int theEntry, final long theKey, final int theDepth) {
+        final long check = myWords.get(theEntry);
+        final long score = myWords.get(theEntry + 1);
+        double result = Double.NaN;
+        if (matches(check, score, theKey) && depth(check) >= theDepth) {
+            result = Double.longBitsToDouble(score);
+        }
+        return result;
+    }
+
+    /**
+     * Tests whether an entry holds a key.
+     * 
+     * @param theCheck The check word of the entry.
+     * @param theScore The score word of the entry.
+     * @param theKey The key.
+     * @return True if the entry was written for the key in one piece.
+     */
+    private static boolean matches(final long theCheck, final long theScore,
+                                   final long theKey) {
+        return ((theCheck ^ theScore ^ theKey) & ~DEPTH_MASK) == 0;
+    }
+
+    /**
+     * Returns the depth recorded in a check word.
+     * 
+     * @param theCheck The check word.
+     * @return The depth, or -1 for an empty entry.
+     */
+    private static int depth(final long theCheck) {
+        return (int) (theCheck & DEPTH_MASK) - 1;
+    }
+
+}
@@ -0,0 +1,583 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import model.GameEngine;
+import model.RandomizerType;
+
+import simulation.BatchRunner;
+import simulation.BatchSummary;
+
+/**
+ * Tunes the weights of a BoardEvaluator with a genetic algorithm.
+ * 
+ * Each generation, every weight vector of the population plays the same
+ * seeded headless games with a HeuristicPolicy, and its fitness is the mean
+ * number of lines cleared.  The fittest vectors survive unchanged; the rest
+ * of the next generation are children of parents picked by tournament,
+ * whose genes are the average of the parents' weighted by fitness, with one
+ * gene nudged at random.  Only the direction of a weight vector changes
+ * which placement is best, so every vector is scaled to unit length.
+ * 
+ * All the games of a generation are forked at once on a ForkJoinPool, so
+ * the workers steal games from every candidate until the generation is
+ * done.  Games share nothing, so the workers never contend for a lock.
+ * 
+ * After every generation the tuner can be saved to a checkpoint file, and a
+ * tuner loaded from it continues exactly where the saved one left off.
+ * 
+ * Options of main:
+ * <pre>
+ *   -c file     checkpoint file, resumed from if it exists
+ *   -g count    generations to reach, default 30
+ *   -p count    population size of a new run, default 48
+ *   -n count    games per candidate of a new run, default 16
+ *   -t ticks    longest game of a new run in engine ticks, default 5000
+ *   -s seed     seed of a new run, default 0
+ * </pre>
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class WeightTuner {
+
+    /**
+     * The default population size.
+     */
+    public static final int DEFAULT_POPULATION = 48;
+
+    /**
+     * The default number of games played by each candidate.
+     */
+    public static final int DEFAULT_GAMES = 16;
+
+    /**
+     * The default longest game in engine ticks.  Every placement ends in a
+     * drop, so a game plays about one piece per tick.
+     */
+    public static final long DEFAULT_MAX_TICKS = 5000;
+
+    /**
+     * The default number of generations run by main().
+     */
+    private static final int DEFAULT_GENERATIONS = 30;
+
+    /**
+     * The number of fittest candidates copied into the next generation.
+     */
+    private static final int ELITES = 4;
+
+    /**
+     * The number of candidates competing to be picked as a parent.
+     */
+    private static final int TOURNAMENT = 3;
+
+    /**
+     * The largest change made to a gene by a mutation.
+     */
+    private static final double MUTATION = 0.2;
+
+    /**
+     * The range of the genes of the first generation, either side of zero.
+     */
+    private static final double INITIAL_RANGE = 1;
+
+    /**
+     * Mixed into the seed of the run to give the tuner's own random choices
+     * a stream apart from the games': "TUNER".
+     */
+    private static final long TUNER_SALT = 0x54554E4552L;
+
+    /**
+     * Separates the weights of a candidate in a checkpoint.
+     */
+    private static final String SEPARATOR = ",";
+
+    /**
+     * The number of games each candidate plays.
+     */
+    private final int myGames;
+
+    /**
+     * The seed of the run.
+     */
+    private final long mySeed;
+
+    /**
+     * The longest game in engine ticks.
+     */
+    private final long myMaxTicks;
+
+    /**
+     * The number of generations evaluated.
+     */
+    private int myGeneration;
+
+    /**
+     * The weight vectors of the current generation.
+     */
+    private double[][] myPopulation;
+
+    /**
+     * The fitness of each weight vector, or null before it is evaluated.
+     */
+    private double[] myFitness;
+
+    /**
+     * Constructs a tuner whose first generation is the default weights and
+     * random weight vectors.
+     * 
+     * @param thePopulation The population size.
+     * @param theGames The number of games each candidate plays.
+     * @param theSeed The seed of the run.
+     * @param theMaxTicks The longest game in engine ticks.
+     * @throws IllegalArgumentException if the population is smaller than
+     *         the number of survivors, or a candidate plays no games.
+     */
+    public WeightTuner(final int thePopulation, final int theGames, final long theSeed,
+                       final long theMaxTicks) {
+        this(theGames, theSeed, theMaxTicks, randomPopulation(thePopulation, theSeed));
+    }
+
+    /**
+     * Constructs a tuner from a population.
+     * 
+     * @param theGames The number of games each candidate plays.
+     * @param theSeed The seed of the run.
+     * @param theMaxTicks The longest game in engine ticks.
+     * @param thePopulation The weight vectors of the current generation.
+     */
+    private WeightTuner(final int theGames, final long theSeed, final long theMaxTicks,
+                        final double[][] thePopulation) {
+        if (thePopulation.length <= ELITES || theGames < 1) {
+            throw new IllegalArgumentException("Need more than " + ELITES
+                                               + " candidates and at least 1 game: "
+                                               + thePopulation.length + ", " + theGames);
+        }
+        myGames = theGames;
+        mySeed = theSeed;
+        myMaxTicks = theMaxTicks;
+        myPopulation = thePopulation;
+    }
+
+    /**
+     * Loads a tuner saved after a generation.
+     * 
+     * @param theFile The checkpoint file.
+     * @return The tuner, ready to breed the next generation.
+     * @throws IOException if the file cannot be read.
+     */
+    public static WeightTuner load(final Path theFile) throws IOException {
+        final Properties saved = new Properties();
+        try (InputStream in = Files.newInputStream(theFile)) {
+            saved.load(in);
+        }
+        final int size = Integer.parseInt(saved.getProperty("population"));
+        final double[][] population = new double[size][];
+        final double[] fitness = new double[size];
+        for (int i = 0; i < size; i++) {
+            population[i] = parse(saved.getProperty("weights." + i));
+            fitness[i] = Double.parseDouble(saved.getProperty("fitness." + i));
+        }
+        final WeightTuner result =
+            new WeightTuner(Integer.parseInt(saved.getProperty("games")),
+                            Long.parseLong(saved.getProperty("seed")),
+                            Long.parseLong(saved.getProperty("maxTicks")), population);
+        result.myGeneration = Integer.parseInt(saved.getProperty("generation"));
+        result.myFitness = fitness;
+        return result;
+    }
+
+    /**
+     * Returns the number of generations evaluated.
+     * 
+     * @return The generation count.
+     */
+    public int getGeneration() {
+        return myGeneration;
+    }
+
+    /**
+     * Returns the fittest weights of the last generation evaluated.
+     * 
+     * @return The weights, indexed by Feature.
+     * @throws IllegalStateException if no generation has been evaluated.
+     */
+    public double[] getBestWeights() {
+        return myPopulation[best()].clone();
+    }
+
+    /**
+     * Returns the fitness of the fittest weights of the last generation.
+     * 
+     * @return The mean lines cleared by the fittest weights.
+     * @throws IllegalStateException if no generation has been evaluated.
+     */
+    public double getBestFitness() {
+        return myFitness[best()];
+    }
+
+    /**
+     * Returns the mean fitness of the last generation evaluated.
+     * 
+     * @return The mean lines cleared by the whole population.
+     * @throws IllegalStateException if no generation has been evaluated.
+     */
+    public double getMeanFitness() {
+        best();
+        double sum = 0;
+        for (final double fitness : myFitness) {
+            sum += fitness;
+        }
+        return sum / myFitness.length;
+    }
+
+    /**
+     * Runs one generation on the common fork/join pool.
+     */
+    public void evolve() {
+        evolve(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs one generation: breeds the next population from the last one
+     * evaluated, if any, and plays its games.
+     * 
+     * @param thePool The pool to play the games on.
+     */
+    public void evolve(final ForkJoinPool thePool) {
+        if (myFitness != null) {
+            myPopulation = breed(tunerRandom(mySeed, myGeneration));
+        }
+        final List<RecursiveTask<BatchSummary>> batches =
+            new ArrayList<RecursiveTask<BatchSummary>>(myPopulation.length);
+        // every candidate plays the same games, which change each generation
+        final long seed = mySeed + (long) myGeneration * myGames;
+        for (final double[] weights : myPopulation) {
+            final BatchRunner runner =
+                new BatchRunner(new HeuristicPolicy(new BoardEvaluator(weights)),
+                                RandomizerType.UNIFORM, GameEngine.DEFAULT_GRAVITY,
+                                myMaxTicks);
+            batches.add(runner.createTask(myGames, seed));
+        }
+        thePool.invoke(new Generation(batches));
+        final double[] fitness = new double[myPopulation.length];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = batches.get(i).join().getLines().getMean();
+        }
+        myFitness = fitness;
+        myGeneration++;
+    }
+
+    /**
+     * Saves the tuner to a checkpoint file.  The file is written in full
+     * beside the old one and then moved over it, so an interrupted save
+     * leaves the previous checkpoint intact.
+     * 
+     * @param theFile The checkpoint file.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalStateException if no generation has been evaluated.
+     */
+    public void save(final Path theFile) throws IOException {
+        best();
+        final Properties saved = new Properties();
+        saved.setProperty("generation", Integer.toString(myGeneration));
+        saved.setProperty("population", Integer.toString(myPopulation.length));
+        saved.setProperty("games", Integer.toString(myGames));
+        saved.setProperty("seed", Long.toString(mySeed));
+        saved.setProperty("maxTicks", Long.toString(myMaxTicks));
+        for (int i = 0; i < myPopulation.length; i++) {
+            saved.setProperty("weights." + i, format(myPopulation[i]));
+            saved.setProperty("fitness." + i, Double.toString(myFitness[i]));
+        }
+        final Path temporary = theFile.resolveSibling(theFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            saved.store(out, "WeightTuner checkpoint");
+        }
+        Files.move(temporary, theFile, StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Tunes weights, printing the fittest of each generation.
+     * 
+     * @param theArgs The options described in the class comment.
+     * @throws IOException if the checkpoint cannot be read or written.
+     */
+    public static void main(final String... theArgs) throws IOException {
+        Path checkpoint = null;
+        int generations = DEFAULT_GENERATIONS;
+        int population = DEFAULT_POPULATION;
+        int games = DEFAULT_GAMES;
+        long maxTicks = DEFAULT_MAX_TICKS;
+        long seed = 0;
+        for (int i = 0; i < theArgs.length; i += 2) {
+            if (i + 1 == theArgs.length) {
+                throw new IllegalArgumentException("Option " + theArgs[i] + " needs a value");
+            }
+            switch (theArgs[i]) {
+                case "-c":
+                    checkpoint = Paths.get(theArgs[i + 1]);
+                    break;
+                case "-g":
+                    generations = Integer.parseInt(theArgs[i + 1]);
+                    break;
+                case "-p":
+                    population = Integer.parseInt(theArgs[i + 1]);
+                    break;
+                case "-n":
+                    games = Integer.parseInt(theArgs[i + 1]);
+                    break;
+                case "-t":
+                    maxTicks = Long.parseLong(theArgs[i + 1]);
+                    break;
+                case "-s":
+                    seed = Long.parseLong(theArgs[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + theArgs[i]);
+            }
+        }
+
+        WeightTuner tuner = new WeightTuner(population, games, seed, maxTicks);
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            tuner = load(checkpoint);
+            System.out.println("resumed after generation " + tuner.getGeneration());
+        }
+        while (tuner.getGeneration() < generations) {
+            final long start = System.nanoTime();
+            tuner.evolve();
+            if (checkpoint != null) {
+                tuner.save(checkpoint);
+            }
+            System.out.printf(Locale.ROOT, "generation %3d best %8.1f mean %8.1f %6.1f s %s%n",
+                              tuner.getGeneration(), tuner.getBestFitness(),
+                              tuner.getMeanFitness(), (System.nanoTime() - start) / 1e9,
+                              format(tuner.getBestWeights()));
+        }
+    }
+
+    // private helper methods
+
+    /**
+     * Returns the random numbers the tuner draws in a generation: the first
+     * population in generation 0, breeding after that.  They are split from
+     * a stream seeded apart from the games, so no game is dealt from the
+     * numbers that shape the population, and a tuner resumed from a
+     * checkpoint draws the same ones.
+     * 
+     * @param theSeed The seed of the run.
+     * @param theGeneration The generation.
+     * @return A random number generator of the generation's own.
+     */
+    private static SplittableRandom tunerRandom(final long theSeed, final int theGeneration) {
+        final SplittableRandom stream = new SplittableRandom(theSeed ^ TUNER_SALT);
+        for (int i = 0; i < theGeneration; i++) {
+            stream.split();
+        }
+        return stream.split();
+    }
+
+    /**
+     * Creates a first generation: the default weights, then random ones.
+     * 
+     * @param theSize The population size.
+     * @param theSeed The seed of the run.
+     * @return The weight vectors.
+     */
+    private static double[][] randomPopulation(final int theSize, final long theSeed) {
+        final SplittableRandom random = tunerRandom(theSeed, 0);
+        final double[][] result = new double[theSize][];
+        for (int i = 0; i < theSize; i++) {
+            double[] weights = BoardEvaluator.getDefaultWeights();
+            if (i > 0) {
+                weights = new double[Feature.COUNT];
+                for (int gene = 0; gene < weights.length; gene++) {
+                    weights[gene] = random.nextDouble(-INITIAL_RANGE, INITIAL_RANGE);
+                }
+            }
+            result[i] = normalize(weights);
+        }
+        return result;
+    }
+
+    /**
+     * Breeds the next generation from the current one.
+     * 
+     * @param theRandom The random source of this generation.
+     * @return The weight vectors of the next generation.
+     */
+    private double[][] breed(final SplittableRandom theRandom) {
+        final Integer[] ranking = new Integer[myPopulation.length];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = i;
+        }
+        Arrays.sort(ranking, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer theFirst, final Integer theSecond) {
+                return Double.compare(myFitness[theSecond], myFitness[theFirst]);
+            }
+        });
+        final double[][] result = new double[myPopulation.length][];
+        for (int i = 0; i < ELITES; i++) {
+            result[i] = myPopulation[ranking[i]];
+        }
+        for (int i = ELITES; i < result.length; i++) {
+            final int first = tournament(theRandom);
+            final int second = tournament(theRandom);
+            // shift both fitnesses so parents that cleared nothing still count
+            final double firstShare = myFitness[first] + 1;
+            final double secondShare = myFitness[second] + 1;
+            final double[] child = new double[Feature.COUNT];
+            for (int gene = 0; gene < child.length; gene++) {
+                child[gene] = (firstShare * myPopulation[first][gene]
+                               + secondShare * myPopulation[second][gene])
+                              / (firstShare + secondShare);
+            }
+            child[theRandom.nextInt(child.length)] += theRandom.nextDouble(-MUTATION,
+                                                                           MUTATION);
+            result[i] = normalize(child);
+        }
+        return result;
+    }
+
+    /**
+     * Picks the fittest of a few random candidates.
+     * 
+     * @param theRandom The random source of this generation.
+     * @return The index of the winner.
+     */
+    private int tournament(final SplittableRandom theRandom) {
+        int result = theRandom.nextInt(myPopulation.length);
+        for (int i = 1; i < TOURNAMENT; i++) {
+            final int rival = theRandom.nextInt(myPopulation.length);
+            if (myFitness[rival] > myFitness[result]) {
+                result = rival;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the fittest candidate of the last generation evaluated.
+     * 
+     * @return The index of the candidate.
+     * @throws IllegalStateException if no generation has been evaluated.
+     */
+    private int best() {
+        if (myFitness == null) {
+            throw new IllegalStateException("No generation has been evaluated");
+        }
+        int result = 0;
+        for (int i = 1; i < myFitness.length; i++) {
+            if (myFitness[i] > myFitness[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scales a weight vector to unit length, in place.
+     * 
+     * @param theWeights The weights.
+     * @return The weights.
+     */
+    private static double[] normalize(final double[] theWeights) {
+        double length = 0;
+        for (final double weight : theWeights) {
+            length += weight * weight;
+        }
+        length = Math.sqrt(length);
+        if (length > 0) {
+            for (int i = 0; i < theWeights.length; i++) {
+                theWeights[i] /= length;
+            }
+        }
+        return theWeights;
+    }
+
+    /**
+     * Formats a weight vector for a checkpoint.
+     * 
+     * @param theWeights The weights.
+     * @return The weights, separated by commas.
+     */
+    private static String format(final double[] theWeights) {
+        final StringBuilder result = new StringBuilder();
+        for (int i = 0; i < theWeights.length; i++) {
+            if (i > 0) {
+                result.append(SEPARATOR);
+            }
+            result.append(theWeights[i]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Parses a weight vector from a checkpoint.
+     * 
+     * @param theText The weights, separated by commas.
+     * @return The weights.
+     */
+    private static double[] parse(final String theText) {
+        final String[] parts = theText.split(SEPARATOR);
+        final double[] result = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Double.parseDouble(parts[i]);
+        }
+        return result;
+    }
+
+    // inner classes
+
+    /**
+     * Plays the batches of every candidate of a generation together.
+     */
+    @SuppressWarnings("serial")
+    private static final class Generation extends RecursiveAction {
+
+        /**
+         * The batches to play.
+         */
+        private final List<RecursiveTask<BatchSummary>> myBatches;
+
+        /**
+         * Constructs the task.
+         * 
+         * @param theBatches The batches to play.
+         */
+        private Generation(final List<RecursiveTask<BatchSummary>> theBatches) {
+            super();
+            myBatches = theBatches;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(myBatches);
+        }
+    }
+
+}
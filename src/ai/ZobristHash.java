@@ -0,0 +1,139 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package ai;
+
+import java.util.SplittableRandom;
+
+import model.BitBoard;
+import model.Rotation;
+import model.TetrisPiece;
+
+/**
+ * Hashes search positions for a TranspositionTable.
+ * 
+ * A position is a board of frozen blocks, the piece to place with its
+ * rotation, and the lines cleared on the way to it.  Each part has its own
+ * random keys and the hash is the exclusive or of the keys of the parts
+ * present.  Rather than one key per cell, each row is cut into chunks of
+ * CHUNK_BITS cells with one key per pattern of a chunk, so a row costs one
+ * table lookup per chunk instead of one per block.  Empty chunks have a
+ * zero key, so empty rows need not be visited.
+ * 
+ * The keys are fixed by the seed; a hash is immutable and may be shared
+ * between threads.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class ZobristHash {
+
+    /**
+     * The number of cells covered by one chunk key.
+     */
+    private static final int CHUNK_BITS = 8;
+
+    /**
+     * The number of patterns of a chunk.
+     */
+    private static final int PATTERNS = 1 << CHUNK_BITS;
+
+    /**
+     * Selects the cells of the lowest chunk of a row.
+     */
+    private static final int CHUNK_MASK = PATTERNS - 1;
+
+    /**
+     * The number of Rotation values.
+     */
+    private static final int ROTATIONS = Rotation.values().length;
+
+    /**
+     * The keys of the chunk patterns, indexed by row, then chunk, then
+     * pattern.
+     */
+    private final long[] myChunkKeys;
+
+    /**
+     * The number of chunks in a row.
+     */
+    private final int myChunks;
+
+    /**
+     * The keys of the pieces, indexed by piece then rotation.
+     */
+    private final long[] myPieceKeys;
+
+    /**
+     * The keys of the numbers of lines cleared.
+     */
+    private final long[] myLineKeys;
+
+    /**
+     * Constructs the keys for boards of one size.
+     * 
+     * @param theWidth Width of the boards hashed.
+     * @param theHeight Height of the boards hashed.
+     * @param theSeed The seed of the random keys.
+     */
+    public ZobristHash(final int theWidth, final int theHeight, final long theSeed) {
+        final SplittableRandom random = new SplittableRandom(theSeed);
+        myChunks = (theWidth + CHUNK_BITS - 1) / CHUNK_BITS;
+        myChunkKeys = new long[theHeight * myChunks * PATTERNS];
+        for (int i = 0; i < myChunkKeys.length; i++) {
+            if ((i & CHUNK_MASK) != 0) {
+                myChunkKeys[i] = random.nextLong();
+            }
+        }
+        myPieceKeys = new long[TetrisPiece.values().length * ROTATIONS];
+        for (int i = 0; i < myPieceKeys.length; i++) {
+            myPieceKeys[i] = random.nextLong();
+        }
+        // a piece can clear at most one line per row of the board
+        myLineKeys = new long[theHeight + 1];
+        for (int i = 1; i < myLineKeys.length; i++) {
+            myLineKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Hashes a board of frozen blocks.
+     * 
+     * @param theBlocks The frozen blocks, the same size as this hash.
+     * @return The hash of the blocks.
+     */
+    public long hash(final BitBoard theBlocks) {
+        final int stack = theBlocks.getStackHeight();
+        long result = 0;
+        int base = 0;
+        for (int y = 0; y < stack; y++) {
+            int row = theBlocks.getRow(y);
+            for (int chunk = 0; chunk < myChunks; chunk++) {
+                result ^= myChunkKeys[base + (row & CHUNK_MASK)];
+                row >>>= CHUNK_BITS;
+                base += PATTERNS;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hashes a search position.
+     * 
+     * @param theBlocks The frozen blocks, the same size as this hash.
+     * @param thePiece The piece to place.
+     * @param theRotation The rotation of the piece.
+     * @param theLines The lines cleared on the way to the position.
+     * @return The hash of the position.
+     */
+    public long hash(final BitBoard theBlocks, final TetrisPiece thePiece,
+                     final Rotation theRotation, final int theLines) {
+        return hash(theBlocks)
+               ^ myPieceKeys[thePiece.ordinal() * ROTATIONS + theRotation.ordinal()]
+               ^ myLineKeys[theLines];
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package benchmark;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import simulation.Statistic;
+
+/**
+ * Runs the model benchmarks and optionally gates them against a baseline.
+ * 
+ * Each operation is calibrated to run in batches of about ten milliseconds,
+ * warmed up, then measured over several timed rounds.  Results are reported
+ * in nanoseconds per operation.
+ * 
+ * Options:
+ * <pre>
+ *   -f text     only run benchmarks whose name contains text
+ *   -o file     save the results to file
+ *   -b file     compare with the results saved in file
+ *   -t percent  slowdown tolerated before failing, default 20
+ * </pre>
+ * The process exits with status 1 if any benchmark regressed past the
+ * tolerance, or if a baseline is given and none of the benchmarks run is
+ * in it, so it can gate a build.  An option without a value is rejected.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Target duration of one batch of repetitions.
+     */
+    private static final long BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Duration of the warm up.
+     */
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    /**
+     * Duration of one measured round.
+     */
+    private static final long ROUND_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * The number of measured rounds.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * The default tolerated slowdown in percent.
+     */
+    private static final double DEFAULT_TOLERANCE = 20;
+
+    /**
+     * Nanoseconds in one second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Percent in one.
+     */
+    private static final double PERCENT = 100;
+
+    /**
+     * Private constructor to inhibit external instantiation.
+     */
+    private BenchmarkRunner() {
+        // do nothing
+    }
+
+    /**
+     * Runs the benchmarks.
+     * 
+     * @param theArgs The options described in the class comment.
+     * @throws IOException if a results file cannot be read or written.
+     */
+    public static void main(final String... theArgs) throws IOException {
+        String filter = "";
+        String output = null;
+        String baseline = null;
+        double tolerance = DEFAULT_TOLERANCE;
+        for (int i = 0; i < theArgs.length; i += 2) {
+            if (i + 1 == theArgs.length) {
+                throw new IllegalArgumentException("Option " + theArgs[i] + " needs a value");
+            }
+            switch (theArgs[i]) {
+                case "-f":
+                    filter = theArgs[i + 1];
+                    break;
+                case "-o":
+                    output = theArgs[i + 1];
+                    break;
+                case "-b":
+                    baseline = theArgs[i + 1];
+                    break;
+                case "-t":
+                    tolerance = Double.parseDouble(theArgs[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + theArgs[i]);
+            }
+        }
+
+        final Properties base = load(baseline);
+        final Properties results = new Properties();
+        boolean regressed = false;
+        int compared = 0;
+        for (final Map.Entry<String, Operation> entry : ModelBenchmarks.create().entrySet()) {
+            final String name = entry.getKey();
+            if (name.contains(filter)) {
+                final Statistic nanos = measure(entry.getValue());
+                results.setProperty(name, Double.toString(nanos.getMean()));
+                String verdict = "";
+                if (base.containsKey(name)) {
+                    compared++;
+                    final double change = PERCENT
+                        * (nanos.getMean() / Double.parseDouble(base.getProperty(name)) - 1);
+                    verdict = String.format(Locale.ROOT, "%+7.1f%%", change);
+                    if (change > tolerance) {
+                        verdict += " REGRESSION";
+                        regressed = true;
+                    }
+                }
+                System.out.println(String.format(Locale.ROOT,
+                                                 "%-44s %12.1f ns/op +- %8.1f %14.0f ops/s %s",
+                                                 name, nanos.getMean(),
+                                                 nanos.getStandardDeviation(),
+                                                 NANOS_PER_SECOND / nanos.getMean(),
+                                                 verdict));
+            }
+        }
+        if (output != null) {
+            try (OutputStream out = new FileOutputStream(output)) {
+                results.store(out, "ns/op");
+            }
+        }
+        System.out.println("sink " + Sink.getValue());
+        if (baseline != null && compared == 0) {
+            System.out.println("no benchmark run is in the baseline " + baseline);
+            regressed = true;
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Measures the time per operation of one benchmark.
+     * 
+     * @param theOperation The benchmark.
+     * @return The nanoseconds per operation of each measured round.
+     */
+    private static Statistic measure(final Operation theOperation) {
+        int repetitions = 1;
+        long start = System.nanoTime();
+        theOperation.run(repetitions);
+        while (System.nanoTime() - start < BATCH_NANOS
+               && repetitions < Integer.MAX_VALUE / 2) {
+            repetitions *= 2;
+            start = System.nanoTime();
+            theOperation.run(repetitions);
+        }
+        runFor(theOperation, repetitions, WARMUP_NANOS);
+        final Statistic result = new Statistic();
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            final long operations = runFor(theOperation, repetitions, ROUND_NANOS);
+            result.add((double) (System.nanoTime() - start) / operations);
+        }
+        return result;
+    }
+
+    /**
+     * Runs batches of an operation for at least a duration.
+     * 
+     * @param theOperation The benchmark.
+     * @param theRepetitions The repetitions per batch.
+     * @param theNanos The duration.
+     * @return The number of operations performed.
+     */
+    private static long runFor(final Operation theOperation, final int theRepetitions,
+                               final long theNanos) {
+        final long start = System.nanoTime();
+        long result = 0;
+        while (System.nanoTime() - start < theNanos) {
+            result += theOperation.run(theRepetitions);
+        }
+        return result;
+    }
+
+    /**
+     * Loads saved results.
+     * 
+     * @param theFile The results file, or null for none.
+     * @return The saved results, empty if there is no file.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Properties load(final String theFile) throws IOException {
+        final Properties result = new Properties();
+        if (theFile != null) {
+            try (InputStream in = new FileInputStream(theFile)) {
+                result.load(in);
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package benchmark;
+
+/**
+ * How full a benchmark board is stacked before measuring.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public enum Fill {
+
+    /**
+     * No frozen blocks.
+     */
+    EMPTY(0),
+
+    /**
+     * Stacked to half the height of the board.
+     */
+    HALF(0.5),
+
+    /**
+     * Stacked close to topping out.
+     */
+    NEAR_TOP(0.85);
+
+    /**
+     * The stack height as a fraction of the board height.
+     */
+    private final double myFraction;
+
+    /**
+     * Constructs a fill level.
+     * 
+     * @param theFraction The stack height as a fraction of the board height.
+     */
+    Fill(final double theFraction) {
+        myFraction = theFraction;
+    }
+
+    /**
+     * Returns the stack height for a board.
+     * 
+     * @param theHeight The height of the board.
+     * @return The number of rows to stack.
+     */
+    public int rows(final int theHeight) {
+        return (int) Math.round(theHeight * myFraction);
+    }
+
+}
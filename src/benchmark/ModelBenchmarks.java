@@ -0,0 +1,505 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import ai.BoardEvaluator;
+import ai.LookaheadSearch;
+
+import model.BitBoard;
+import model.Board;
+import model.Board.BoardData;
+import model.Board.PieceLocked;
+import model.BoardAdapter;
+import model.GameEngine;
+import model.MovableTetrisPiece;
+import model.PieceTable;
+import model.Point;
+import model.RandomizerType;
+import model.Rotation;
+import model.TetrisPiece;
+import model.UniformRandomizer;
+import model.WallKick;
+
+import simulation.BatchRunner;
+import simulation.RandomPolicy;
+
+/**
+ * The benchmarks of the model package and the evaluator built on it.
+ * 
+ * Board level operations are measured on boards stacked by scripted random
+ * play to each Fill level.  Every board is built from a fixed seed, so runs
+ * measure the same positions.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class ModelBenchmarks {
+
+    /**
+     * The TetrisPiece types.
+     */
+    private static final TetrisPiece[] PIECES = TetrisPiece.values();
+
+    /**
+     * The rotations indexed by ordinal.
+     */
+    private static final Rotation[] ROTATIONS = Rotation.values();
+
+    /**
+     * The seed of every fixture.
+     */
+    private static final long SEED = 305;
+
+    /**
+     * The number of precomputed cases cycled through by table driven
+     * operations; a power of two.
+     */
+    private static final int CASES = 1024;
+
+    /**
+     * The row pieces are tested at by getBoardPoints.
+     */
+    private static final int PIECE_ROW = 10;
+
+    /**
+     * The number of full rows added before clearing.
+     */
+    private static final int FULL_ROWS = 4;
+
+    /**
+     * The width of the standard board.
+     */
+    private static final int WIDTH = 10;
+
+    /**
+     * The height of the standard board.
+     */
+    private static final int HEIGHT = 20;
+
+    /**
+     * Private constructor to inhibit external instantiation.
+     */
+    private ModelBenchmarks() {
+        // do nothing
+    }
+
+    /**
+     * Creates every benchmark, in reporting order.
+     * 
+     * @return The operations by name.
+     */
+    public static Map<String, Operation> create() {
+        final Map<String, Operation> result = new LinkedHashMap<String, Operation>();
+        for (final Fill fill : Fill.values()) {
+            final String suffix = " [" + fill + "]";
+            result.put("Board.move" + suffix, move(stackBoard(fill)));
+            result.put("Board.rotate" + suffix, rotate(stackBoard(fill)));
+            final BitBoard bits = stackBitBoard(fill);
+            result.put("BitBoard.fits" + suffix, fits(bits));
+            result.put("BitBoard.dropRow" + suffix, dropRow(bits));
+            result.put("BitBoard.copy" + suffix, copy(bits));
+            result.put("BitBoard.copy+clearCompleteRows" + suffix, clearRows(bits));
+            result.put("BoardEvaluator.evaluate" + suffix, evaluate(bits));
+            result.put("LookaheadSearch.decide" + suffix, lookahead(bits));
+        }
+        result.put("MovableTetrisPiece.getBoardPoints", boardPoints());
+        result.put("WallKick.getWallKicks", wallKicks());
+        result.put("BoardData.getBoardData", boardData());
+        result.put("Game.pieces", game());
+        return result;
+    }
+
+    // operations
+
+    /**
+     * Moves the current piece left and right.
+     * 
+     * @param theBoard The board to move on.
+     * @return The operation.
+     */
+    private static Operation move(final Board theBoard) {
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                for (int i = 0; i < theRepetitions; i++) {
+                    if ((i & 1) == 0) {
+                        theBoard.left();
+                    } else {
+                        theBoard.right();
+                    }
+                }
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Rotates the current piece clockwise, including wall kicks.
+     * 
+     * @param theBoard The board to rotate on.
+     * @return The operation.
+     */
+    private static Operation rotate(final Board theBoard) {
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                for (int i = 0; i < theRepetitions; i++) {
+                    theBoard.rotateCW();
+                }
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Tests random pieces for collisions, as every move of a Board does.
+     * 
+     * @param theBits The frozen blocks.
+     * @return The operation.
+     */
+    private static Operation fits(final BitBoard theBits) {
+        final int[] cases = randomCases(theBits, false);
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                long fit = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    final int c = (i & (CASES - 1)) * 4;
+                    if (theBits.fits(PIECES[cases[c]],
+                                     ROTATIONS[cases[c + 1]],
+                                     cases[c + 2], cases[c + 3])) {
+                        fit++;
+                    }
+                }
+                Sink.consume(fit);
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Finds the landing row of random pieces, as the ghost piece does.
+     * 
+     * @param theBits The frozen blocks.
+     * @return The operation.
+     */
+    private static Operation dropRow(final BitBoard theBits) {
+        final int[] cases = randomCases(theBits, true);
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                long rows = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    final int c = (i & (CASES - 1)) * 4;
+                    rows += theBits.dropRow(PIECES[cases[c]],
+                                            ROTATIONS[cases[c + 1]],
+                                            cases[c + 2], cases[c + 3]);
+                }
+                Sink.consume(rows);
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Copies the frozen blocks.
+     * 
+     * @param theBits The frozen blocks.
+     * @return The operation.
+     */
+    private static Operation copy(final BitBoard theBits) {
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                for (int i = 0; i < theRepetitions; i++) {
+                    Sink.consume(theBits.copy());
+                }
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Clears full rows from a copy of the frozen blocks, as a Board does
+     * after a piece locks.  Subtract BitBoard.copy for the clear alone.
+     * 
+     * @param theBits The frozen blocks.
+     * @return The operation.
+     */
+    private static Operation clearRows(final BitBoard theBits) {
+        final BitBoard template = theBits.copy();
+        for (int y = 0; y < FULL_ROWS; y++) {
+            for (int x = 0; x < template.getWidth(); x++) {
+                template.set(x, y, TetrisPiece.I);
+            }
+        }
+        final int[] cleared = new int[template.getHeight()];
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                long rows = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    rows += template.copy().clearCompleteRows(cleared);
+                }
+                Sink.consume(rows);
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Scores the frozen blocks with the default heuristic.
+     * 
+     * @param theBits The frozen blocks.
+     * @return The operation.
+     */
+    private static Operation evaluate(final BitBoard theBits) {
+        final BoardEvaluator evaluator = new BoardEvaluator();
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                double sum = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    sum += evaluator.evaluate(theBits, i & 3);
+                }
+                Sink.consume(Double.doubleToLongBits(sum));
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Searches every piece followed by every piece two plies deep with a
+     * beam wide enough to cover the full tree.
+     * 
+     * @param theBits The frozen blocks.
+     * @return The operation.
+     */
+    private static Operation lookahead(final BitBoard theBits) {
+        final LookaheadSearch search =
+            new LookaheadSearch(WIDTH, HEIGHT, new BoardEvaluator(), Integer.MAX_VALUE,
+                                ForkJoinPool.commonPool());
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                long sum = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    final TetrisPiece piece = PIECES[i % PIECES.length];
+                    final TetrisPiece next = PIECES[i / PIECES.length % PIECES.length];
+                    sum += search.decide(theBits, piece, Rotation.NONE,
+                                         (WIDTH - piece.getWidth()) / 2, HEIGHT - 2,
+                                         next).size();
+                }
+                Sink.consume(sum);
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Computes the board points of every piece in every rotation.
+     * 
+     * @return The operation.
+     */
+    private static Operation boardPoints() {
+        final MovableTetrisPiece[] shapes =
+            new MovableTetrisPiece[PIECES.length * ROTATIONS.length];
+        for (int i = 0; i < shapes.length; i++) {
+            shapes[i] = new MovableTetrisPiece(PIECES[i / ROTATIONS.length],
+                                               new Point(WIDTH / 2, PIECE_ROW),
+                                               ROTATIONS[i % ROTATIONS.length]);
+        }
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                long sum = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    sum += shapes[i % shapes.length].getBoardPoints()[0].x();
+                }
+                Sink.consume(sum);
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Looks up the wall kicks of every clockwise rotation.
+     * 
+     * @return The operation.
+     */
+    private static Operation wallKicks() {
+        final int cases = PIECES.length * ROTATIONS.length;
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                long sum = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    final int c = i % cases;
+                    final Rotation from = ROTATIONS[c % ROTATIONS.length];
+                    sum += WallKick.getWallKicks(PIECES[c / ROTATIONS.length], from,
+                                                 from.clockwise()).length;
+                }
+                Sink.consume(sum);
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Copies the board data published when a board is reset.  The data is
+     * only published for an empty board, so it has no fill levels.
+     * 
+     * @return The operation.
+     */
+    private static Operation boardData() {
+        final Board board = new Board();
+        final BoardData[] data = new BoardData[1];
+        board.addBoardListener(new BoardAdapter() {
+            @Override
+            public void onBoardReset(final BoardData theData) {
+                data[0] = theData;
+            }
+        });
+        board.clear();
+        return new Operation() {
+            @Override
+            public long run(final int theRepetitions) {
+                for (int i = 0; i < theRepetitions; i++) {
+                    Sink.consume(data[0].getBoardData());
+                }
+                return theRepetitions;
+            }
+        };
+    }
+
+    /**
+     * Plays whole games with scripted random input.  Each operation is one
+     * piece placed.
+     * 
+     * @return The operation.
+     */
+    private static Operation game() {
+        final BatchRunner runner = new BatchRunner(new RandomPolicy(), RandomizerType.BAG,
+                                                   GameEngine.DEFAULT_GRAVITY,
+                                                   BatchRunner.DEFAULT_MAX_TICKS);
+        return new Operation() {
+            /** The seed of the next game. */
+            private long mySeed = SEED;
+
+            @Override
+            public long run(final int theRepetitions) {
+                long pieces = 0;
+                for (int i = 0; i < theRepetitions; i++) {
+                    pieces += runner.play(mySeed++).getPieces();
+                }
+                return pieces;
+            }
+        };
+    }
+
+    // fixtures
+
+    /**
+     * Builds a standard board stacked to a fill level by random play.
+     * 
+     * @param theFill The fill level.
+     * @return The board, with a piece in play.
+     */
+    private static Board stackBoard(final Fill theFill) {
+        final Board board = new Board(WIDTH, HEIGHT);
+        final int target = theFill.rows(HEIGHT);
+        final int[] top = new int[1];
+        board.addBoardListener(new BoardAdapter() {
+            @Override
+            public void onPieceLocked(final PieceLocked thePiece) {
+                for (final Point p : thePiece.getPiece().getBoardPoints()) {
+                    top[0] = Math.max(top[0], p.y() + 1);
+                }
+            }
+        });
+        board.setRandomizer(new UniformRandomizer(SEED));
+        board.clear();
+        final GameEngine engine = new GameEngine(board);
+        final RandomPolicy policy = new RandomPolicy();
+        final SplittableRandom random = new SplittableRandom(SEED);
+        while (top[0] < target) {
+            if (board.isGameOver()) {
+                board.clear();
+                top[0] = 0;
+            }
+            policy.playPiece(engine, random);
+        }
+        return board;
+    }
+
+    /**
+     * Builds standard frozen blocks stacked to a fill level by dropping
+     * random PIECES.
+     * 
+     * @param theFill The fill level.
+     * @return The frozen blocks.
+     */
+    private static BitBoard stackBitBoard(final Fill theFill) {
+        final BitBoard result = new BitBoard(WIDTH, HEIGHT);
+        final int target = theFill.rows(HEIGHT);
+        final int[] cleared = new int[HEIGHT];
+        final SplittableRandom random = new SplittableRandom(SEED);
+        while (result.getStackHeight() < target) {
+            final int[] drop = randomCase(result, random, true);
+            final TetrisPiece piece = PIECES[drop[0]];
+            final Rotation rotation = ROTATIONS[drop[1]];
+            result.place(piece, rotation, drop[2],
+                         result.dropRow(piece, rotation, drop[2], drop[3]));
+            result.clearCompleteRows(cleared);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a table of random piece positions inside the walls.
+     * 
+     * @param theBits The frozen blocks.
+     * @param theAtTop Whether every position is at the top of the board.
+     * @return CASES entries of piece, rotation, x and y.
+     */
+    private static int[] randomCases(final BitBoard theBits, final boolean theAtTop) {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        final int[] result = new int[CASES * 4];
+        for (int i = 0; i < CASES; i++) {
+            System.arraycopy(randomCase(theBits, random, theAtTop), 0, result, i * 4, 4);
+        }
+        return result;
+    }
+
+    /**
+     * Chooses a random piece position inside the walls.
+     * 
+     * @param theBits The frozen blocks.
+     * @param theRandom The random source.
+     * @param theAtTop Whether the position is at the top of the board.
+     * @return The piece ordinal, rotation ordinal, x and y.
+     */
+    private static int[] randomCase(final BitBoard theBits, final SplittableRandom theRandom,
+                                    final boolean theAtTop) {
+        final TetrisPiece piece = PIECES[theRandom.nextInt(PIECES.length)];
+        final Rotation rotation = ROTATIONS[theRandom.nextInt(ROTATIONS.length)];
+        final int x = theRandom.nextInt(-PieceTable.getMinX(piece, rotation),
+                                        theBits.getWidth()
+                                            - PieceTable.getMaxX(piece, rotation));
+        int y = theBits.getHeight();
+        if (!theAtTop) {
+            y = theRandom.nextInt(theBits.getHeight());
+        }
+        return new int[] {piece.ordinal(), rotation.ordinal(), x, y};
+    }
+
+}
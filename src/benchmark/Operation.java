@@ -0,0 +1,27 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package benchmark;
+
+/**
+ * A measured piece of work.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public interface Operation {
+
+    /**
+     * Runs the work repeatedly.  Results must be passed to Sink.consume()
+     * so the work cannot be optimized away.
+     * 
+     * @param theRepetitions The number of times to run the work.
+     * @return The number of operations performed, which is theRepetitions
+     *         unless one repetition counts as many operations.
+     */
+    long run(int theRepetitions);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumes benchmark results so the JIT cannot discard the work that
+ * produced them.  Operations should combine their results locally and
+ * consume them once per run.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class Sink {
+
+    /**
+     * The combined consumed values.
+     */
+    private static final AtomicLong VALUE = new AtomicLong();
+
+    /**
+     * Private constructor to inhibit external instantiation.
+     */
+    private Sink() {
+        // do nothing
+    }
+
+    /**
+     * Consumes a value.
+     * 
+     * @param theValue The value to consume.
+     */
+    public static void consume(final long theValue) {
+        VALUE.addAndGet(theValue);
+    }
+
+    /**
+     * Consumes an object.
+     * 
+     * @param theObject The object to consume.
+     */
+    public static void consume(final Object theObject) {
+        VALUE.addAndGet(System.identityHashCode(theObject));
+    }
+
+    /**
+     * Returns the combined consumed values.
+     * 
+     * @return The sink value.
+     */
+    public static long getValue() {
+        return VALUE.get();
+    }
+
+}
@@ -0,0 +1,507 @@
+/*
+ * TCSS 305  Winter 2015
+ * Assignment 6 - Tetris
+ */
+
+package gui;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferStrategy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import model.Board;
+import model.Board.BoardData;
+import model.Board.CompletedLines;
+import model.Board.PieceLocked;
+import model.Board.PieceMoved;
+import model.BoardCommand;
+import model.BoardListener;
+import model.GameEngine;
+import model.MovableTetrisPiece;
+import model.Point;
+import model.TetrisPiece;
+
+import zelda.Guard;
+
+
+/**
+ * An actively rendered display of a game of Tetris, an alternative to the
+ * GamePanel.
+ * 
+ * The game engine runs on its own fixed-timestep thread.  As the board
+ * changes, the canvas publishes a BoardSnapshot to an AtomicReference.  A
+ * render thread draws the newest snapshot into a BufferStrategy once per
+ * frame, at FRAMES_PER_SECOND, sleeping to a fixed deadline between
+ * frames.  Neither thread waits for the other, so a slow frame cannot
+ * delay the game, and a burst of moves cannot delay a frame.  Keys are
+ * sent to the engine with submit().
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version 08 March 2015
+ */
+@SuppressWarnings("serial")
+public final class ActiveGameCanvas extends Canvas implements BoardListener {
+    
+    /** The frames drawn per second. */
+    public static final int FRAMES_PER_SECOND = 60;
+    
+    /** The length of a frame in nanoseconds. */
+    private static final long FRAME_NANOS = 1000000000L / FRAMES_PER_SECOND;
+    
+    /** The length of a guard animation step in nanoseconds. */
+    private static final long GUARD_NANOS = 250000000L;
+    
+    /** The guard images in animation order. */
+    private static final Guard[] GUARDS = Guard.values();
+    
+    /** The number of buffers in the buffer strategy. */
+    private static final int BUFFERS = 2;
+    
+    /** The amount of lines removed from the top of the Tetris board. */
+    private static final int REMOVED_LINES = 4;
+    
+    /** The alpha below which a block is a ghost. */
+    private static final int GHOST_ALPHA = 250;
+    
+    /** The size of messages, in blocks. */
+    private static final int MESSAGE_BLOCKS = 3;
+    
+    /** The background color around the board. */
+    private static final Color BACKGROUND = Color.LIGHT_GRAY;
+    
+    /** The default font for messages. */
+    private static final String DEFAULT_FONT = "Verdana";
+    
+    
+    /** The engine running the Tetris game. */
+    private final GameEngine myEngine;
+    
+    /** The Tetris game. */
+    private final Board myTetris;
+    
+    /** The commands by key code. */
+    private final Map<Integer, BoardCommand> myKeys;
+    
+    /** The newest snapshot of the board. */
+    private final AtomicReference<BoardSnapshot> mySnapshot;
+    
+    /** The blocks pre-rendered at the block size; used by the render thread. */
+    private final BlockAtlas myAtlas;
+    
+    /** The board data, patched by every board change on the engine thread. */
+    private List<Color[]> myGameData;
+    
+    /** The thread drawing the frames, or null. */
+    private Thread myRenderThread;
+    
+    /** Whether the render thread should keep running. */
+    private volatile boolean myRunning;
+    
+    /** Indicates that the game is paused. */
+    private volatile boolean myGameIsPaused;
+    
+    /** Is Zelda theme activated? */
+    private volatile boolean myZeldaTheme;
+    
+    /** The time taken to draw the last frame, in nanoseconds. */
+    private volatile long myFrameNanos;
+    
+    
+    /**
+     * Builds the canvas for a game.  The canvas listens to the board
+     * itself.
+     * 
+     * @param theEngine The engine running the game.
+     */
+    public ActiveGameCanvas(final GameEngine theEngine) {
+        super();
+        myEngine = theEngine;
+        myTetris = theEngine.getBoard();
+        myKeys = new HashMap<Integer, BoardCommand>();
+        mySnapshot = new AtomicReference<BoardSnapshot>();
+        myAtlas = new BlockAtlas();
+        myKeys.put(KeyEvent.VK_A, BoardCommand.LEFT);
+        myKeys.put(KeyEvent.VK_D, BoardCommand.RIGHT);
+        myKeys.put(KeyEvent.VK_S, BoardCommand.DOWN);
+        myKeys.put(KeyEvent.VK_E, BoardCommand.ROTATE_CW);
+        myKeys.put(KeyEvent.VK_Q, BoardCommand.ROTATE_CCW);
+        myKeys.put(KeyEvent.VK_W, BoardCommand.DROP);
+        setBackground(BACKGROUND);
+        setIgnoreRepaint(true);
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(final KeyEvent theEvent) {
+                keyCommand(theEvent.getKeyCode());
+            }
+        });
+        myTetris.addBoardListener(this);
+    }
+    
+    
+    /**
+     * Returns the time taken to draw the last frame.
+     * 
+     * @return The frame time in nanoseconds.
+     */
+    public long getFrameNanos() {
+        return myFrameNanos;
+    }
+    
+    
+    /**
+     * Updates the theme the game is drawn in.
+     * 
+     * @param theThemeStatus The status of the Zelda theme.
+     */
+    public void updateTheme(final boolean theThemeStatus) {
+        myZeldaTheme = theThemeStatus;
+    }
+    
+    
+    /**
+     * Starts a new game and the threads running and drawing it.  The
+     * canvas must be displayable.  Called on the event dispatch thread.
+     */
+    public void start() {
+        if (myRenderThread == null) {
+            createBufferStrategy(BUFFERS);
+            myRunning = true;
+            myRenderThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    renderLoop(getBufferStrategy());
+                }
+            }, "ActiveGameCanvas");
+            myRenderThread.setDaemon(true);
+            myRenderThread.start();
+            newGame();
+        }
+    }
+    
+    
+    /**
+     * Stops the game and the render thread.  Called on the event dispatch
+     * thread.
+     * 
+     * @throws InterruptedException if interrupted while waiting for the
+     *         threads to finish.
+     */
+    public void stop() throws InterruptedException {
+        myEngine.stop();
+        myRunning = false;
+        if (myRenderThread != null) {
+            myRenderThread.join();
+            myRenderThread = null;
+        }
+    }
+    
+    
+    /**
+     * Starts a new game: stops the engine, clears the board and starts the
+     * engine again.
+     * 
+     * @throws InterruptedException if interrupted while waiting for the
+     *         engine to stop.
+     */
+    private void restart() throws InterruptedException {
+        myEngine.stop();
+        myEngine.reset();
+        myGameIsPaused = false;
+        myTetris.clear();
+        myEngine.start();
+    }
+    
+    
+    /**
+     * Starts a new game, keeping the interrupt of the calling thread.
+     */
+    private void newGame() {
+        try {
+            restart();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    
+    /**
+     * Toggles the state of pause by stopping or starting the engine.
+     */
+    private void togglePause() {
+        try {
+            if (myGameIsPaused) {
+                myGameIsPaused = false;
+                myEngine.start();
+            } else if (!isGameOver()) {
+                myEngine.stop();
+                myGameIsPaused = true;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    
+    /**
+     * Returns whether the game is over, as last published.  The board
+     * itself belongs to the engine thread.
+     * 
+     * @return True if the game is over.
+     */
+    private boolean isGameOver() {
+        final BoardSnapshot snapshot = mySnapshot.get();
+        return snapshot != null && snapshot.isGameOver();
+    }
+    
+    
+    /**
+     * Acts on a key: a move is sent to the engine, P pauses and N starts a
+     * new game.
+     * 
+     * @param theKeyCode The code of the key pressed.
+     */
+    private void keyCommand(final int theKeyCode) {
+        final BoardCommand command = myKeys.get(theKeyCode);
+        if (theKeyCode == KeyEvent.VK_P) {
+            togglePause();
+        } else if (theKeyCode == KeyEvent.VK_N) {
+            newGame();
+        } else if (command != null && !myGameIsPaused) {
+            myEngine.submit(command);
+        }
+    }
+    
+    
+    /**
+     * Draws frames until stopped, each at a fixed deadline after the last.
+     * A frame that runs past the next deadline drops the frames it missed
+     * instead of hurrying to catch up.
+     * 
+     * @param theStrategy The buffers to draw into.
+     */
+    private void renderLoop(final BufferStrategy theStrategy) {
+        long deadline = System.nanoTime();
+        while (myRunning) {
+            final long start = System.nanoTime();
+            drawFrame(theStrategy);
+            Toolkit.getDefaultToolkit().sync();
+            final long now = System.nanoTime();
+            myFrameNanos = now - start;
+            deadline += FRAME_NANOS;
+            if (now - deadline > FRAME_NANOS) {
+                deadline = now;
+            }
+            LockSupport.parkNanos(deadline - now);
+        }
+    }
+    
+    
+    /**
+     * Draws the newest snapshot into the next buffer and shows it.
+     * 
+     * @param theStrategy The buffers to draw into.
+     */
+    private void drawFrame(final BufferStrategy theStrategy) {
+        do {
+            do {
+                final Graphics2D graphics = (Graphics2D) theStrategy.getDrawGraphics();
+                try {
+                    drawSnapshot(graphics, mySnapshot.get(), getWidth(), getHeight());
+                } finally {
+                    graphics.dispose();
+                }
+            } while (theStrategy.contentsRestored());
+            theStrategy.show();
+        } while (theStrategy.contentsLost());
+    }
+    
+    
+    /**
+     * Draws a snapshot of the board, centered like the GamePanel.
+     * 
+     * @param theGraphics The graphics.
+     * @param theSnapshot The snapshot, or null before the first game.
+     * @param theWidth The width of the canvas.
+     * @param theHeight The height of the canvas.
+     */
+    private void drawSnapshot(final Graphics2D theGraphics, final BoardSnapshot theSnapshot,
+                              final int theWidth, final int theHeight) {
+        final int blockSize = Math.min(theHeight / myTetris.getHeight(),
+                                       theWidth / myTetris.getWidth());
+        myAtlas.setBlockSize(blockSize);
+        final int boardWidth = myTetris.getWidth() * blockSize;
+        final int boardHeight = myTetris.getHeight() * blockSize;
+        final Point origin = new Point((theWidth - boardWidth) / 2,
+                                       (theHeight - boardHeight) / 2);
+        final boolean zelda = myZeldaTheme;
+        Backdrop backdrop = Backdrop.ZELDA;
+        if (zelda) {
+            theGraphics.setPaint(BACKGROUND);
+        } else {
+            backdrop = Backdrop.CLASSIC;
+            theGraphics.setPaint(Color.BLACK);
+        }
+        theGraphics.fillRect(0, 0, theWidth, theHeight);
+        theGraphics.drawImage(backdrop.getImage(boardWidth, boardHeight, BACKGROUND,
+                                                getGraphicsConfiguration()),
+                              origin.x(), origin.y(), null);
+        if (theSnapshot != null && blockSize > 0) {
+            final Guard guard = GUARDS[(int) (System.nanoTime() / GUARD_NANOS % GUARDS.length)];
+            for (int y = 0; y < theSnapshot.getRows() - REMOVED_LINES; y++) {
+                for (int x = 0; x < myTetris.getWidth(); x++) {
+                    Color color = theSnapshot.getColor(x, y);
+                    if (color != null) {
+                        if (myGameIsPaused) {
+                            color = BlockAtlas.PAUSED_COLOR;
+                        }
+                        drawBlock(theGraphics, color, guard, zelda,
+                                  origin.x() + x * blockSize,
+                                  origin.y() + (myTetris.getHeight() - y - 1) * blockSize);
+                    }
+                }
+            }
+            if (theSnapshot.isGameOver()) {
+                drawMessage(theGraphics, "- Game Over -", Color.RED, origin, blockSize);
+            } else if (myGameIsPaused) {
+                drawMessage(theGraphics, "- Paused -", Color.YELLOW, origin, blockSize);
+            }
+        }
+    }
+    
+    
+    /**
+     * Draws a block from the block atlas.
+     * 
+     * @param theGraphics The graphics.
+     * @param theColor The color of the block.
+     * @param theGuard The guard image shown in the Zelda theme.
+     * @param theZelda Whether the Zelda theme is shown.
+     * @param theX The x coordinate of the block in pixels.
+     * @param theY The y coordinate of the block in pixels.
+     */
+    private void drawBlock(final Graphics2D theGraphics, final Color theColor,
+                           final Guard theGuard, final boolean theZelda,
+                           final int theX, final int theY) {
+        if (theZelda) {
+            final boolean ghost = theColor.getAlpha() < GHOST_ALPHA;
+            theGraphics.drawImage(myAtlas.getGuard(theGuard, ghost), theX, theY, null);
+        } else {
+            theGraphics.drawImage(myAtlas.getBlock(theColor), theX, theY, null);
+        }
+    }
+    
+    
+    /**
+     * Draws a message across the middle of the board.
+     * 
+     * @param theGraphics The graphics.
+     * @param theMessage The message.
+     * @param theColor The color of the message.
+     * @param theOrigin The top left corner of the board.
+     * @param theBlockSize The size of a block in pixels.
+     */
+    private void drawMessage(final Graphics2D theGraphics, final String theMessage,
+                             final Color theColor, final Point theOrigin,
+                             final int theBlockSize) {
+        theGraphics.setFont(new Font(DEFAULT_FONT, Font.BOLD, theBlockSize));
+        final int width = theGraphics.getFontMetrics().stringWidth(theMessage);
+        final int x = theOrigin.x() + (myTetris.getWidth() * theBlockSize - width) / 2;
+        final int y = theOrigin.y() + myTetris.getHeight() * theBlockSize / 2;
+        theGraphics.setPaint(Color.DARK_GRAY);
+        theGraphics.fillRect(theOrigin.x(), y - theBlockSize * 2,
+                             myTetris.getWidth() * theBlockSize,
+                             theBlockSize * MESSAGE_BLOCKS);
+        theGraphics.setPaint(theColor);
+        theGraphics.drawString(theMessage, x, y);
+    }
+    
+    
+    /**
+     * Publishes a snapshot of the board data for the render thread.
+     */
+    private void publish() {
+        mySnapshot.set(new BoardSnapshot(myGameData, myTetris.isGameOver()));
+    }
+    
+    
+    /**
+     * Sets the blocks of a piece in the board data.
+     * 
+     * @param thePiece The piece, or null for no piece.
+     * @param theColor The color to set, or null to erase the blocks.
+     */
+    private void setBlocks(final MovableTetrisPiece thePiece, final Color theColor) {
+        if (thePiece != null) {
+            for (final Point p : thePiece.getBoardPoints()) {
+                if (p.y() >= 0 && p.y() < myGameData.size()) {
+                    myGameData.get(p.y())[p.x()] = theColor;
+                }
+            }
+        }
+    }
+    
+    
+    @Override
+    public void onBoardReset(final BoardData theData) {
+        myGameData = theData.getBoardData();
+        publish();
+    }
+    
+    
+    @Override
+    public void onPieceMoved(final PieceMoved theMove) {
+        setBlocks(theMove.getOldGhost(), null);
+        setBlocks(theMove.getOldPiece(), null);
+        final MovableTetrisPiece ghost = theMove.getNewGhost();
+        if (ghost != null) {
+            setBlocks(ghost, ghost.getTetrisPiece().getGhostColor());
+        }
+        final MovableTetrisPiece piece = theMove.getNewPiece();
+        if (piece != null) {
+            setBlocks(piece, piece.getTetrisPiece().getColor());
+        }
+        publish();
+    }
+    
+    
+    @Override
+    public void onPieceLocked(final PieceLocked theLock) {
+        setBlocks(theLock.getGhost(), null);
+        publish();
+    }
+    
+    
+    @Override
+    public void onLinesCleared(final CompletedLines theLines) {
+        final List<Integer> lines = theLines.getCompletedLines();
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            myGameData.remove((int) lines.get(i));
+            myGameData.add(new Color[myTetris.getWidth()]);
+        }
+        publish();
+    }
+    
+    
+    @Override
+    public void onNextPiece(final TetrisPiece thePiece) {
+        // The next piece is not shown.
+    }
+    
+    
+    @Override
+    public void onGameOver() {
+        publish();
+    }
+    
+}
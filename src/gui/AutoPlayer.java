@@ -0,0 +1,245 @@
+/*
+ * TCSS 305  Winter 2015
+ * Assignment 6 - Tetris
+ */
+
+package gui;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.Timer;
+
+import ai.BoardEvaluator;
+import ai.LookaheadSearch;
+
+import model.BitBoard;
+import model.Board;
+import model.Board.BoardData;
+import model.Board.PieceLocked;
+import model.BoardAdapter;
+import model.BoardCommand;
+import model.Rotation;
+import model.TetrisPiece;
+
+/**
+ * Plays the game in the GamePanel with a LookaheadSearch.
+ * 
+ * Each new piece is planned on a worker thread from a snapshot of the
+ * board, so the event dispatch thread never waits on the search.  The plan
+ * is handed back to the event dispatch thread and played through the same
+ * commands the key bindings use, all in one turn of the thread, so no
+ * gravity step lands between them and shifts the piece off the path the
+ * search chose.  If gravity has moved the piece since the snapshot, the
+ * plan is thrown away and the piece planned again from where it is.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version 08 March 2015
+ */
+public class AutoPlayer extends BoardAdapter {
+    
+    /** Milliseconds between checks for the end of a pause. */
+    private static final int RETRY_DELAY = 40;
+    
+    /** The Tetris game. */
+    private final Board myTetris;
+    
+    /** The panel the moves are played on. */
+    private final GamePanel myGamePanel;
+    
+    /** The thread planning the moves. */
+    private final ExecutorService myWorker;
+    
+    /** The search planning the moves; only used on the worker thread. */
+    private final LookaheadSearch mySearch;
+    
+    /** The moves of the current plan not played yet. */
+    private final Deque<BoardCommand> myMoves;
+    
+    /** The timer playing a plan that arrived while the game was paused. */
+    private final Timer myMoveTimer;
+    
+    /** The rotation of the piece the current plan starts from. */
+    private Rotation myPlanRotation;
+    
+    /** The column of the piece the current plan starts from. */
+    private int myPlanX;
+    
+    /** The row of the piece the current plan starts from. */
+    private int myPlanY;
+    
+    /** Counts the pieces, so plans for earlier pieces are thrown away. */
+    private int myPieceCount;
+    
+    /** Whether the auto player is playing. */
+    private boolean myEnabled;
+    
+    
+    /**
+     * Constructor for the auto player.
+     * 
+     * @param theTetris The Tetris game.
+     * @param theGamePanel The panel the moves are played on.
+     */
+    public AutoPlayer(final Board theTetris, final GamePanel theGamePanel) {
+        super();
+        myTetris = theTetris;
+        myGamePanel = theGamePanel;
+        mySearch = new LookaheadSearch(theTetris.getWidth(), theTetris.getHeight(),
+                                       new BoardEvaluator());
+        myMoves = new ArrayDeque<BoardCommand>();
+        myWorker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable theTask) {
+                final Thread thread = new Thread(theTask, "AutoPlayer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        myMoveTimer = new Timer(RETRY_DELAY, new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent theEvent) {
+                playPlan();
+            }
+        });
+    }
+    
+    
+    /**
+     * Starts or stops the auto player.
+     * 
+     * @param theEnabled True to play, false to leave the game to the keys.
+     */
+    public void setEnabled(final boolean theEnabled) {
+        myEnabled = theEnabled;
+        newPiece();
+    }
+    
+    
+    /**
+     * Returns whether the auto player is playing.
+     * 
+     * @return True if the auto player is playing.
+     */
+    public boolean isEnabled() {
+        return myEnabled;
+    }
+    
+    
+    @Override
+    public void onBoardReset(final BoardData theData) {
+        newPiece();
+    }
+    
+    
+    @Override
+    public void onPieceLocked(final PieceLocked theLock) {
+        newPiece();
+    }
+    
+    
+    /**
+     * Drops the current plan and, when playing, plans the next piece once
+     * the board has finished updating.
+     */
+    private void newPiece() {
+        myPieceCount++;
+        myMoves.clear();
+        myMoveTimer.stop();
+        if (myEnabled) {
+            EventQueue.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    plan();
+                }
+            });
+        }
+    }
+    
+    
+    /**
+     * Snapshots the board and plans the current piece on the worker thread.
+     */
+    private void plan() {
+        if (myEnabled && !myTetris.isGameOver()) {
+            final int piece = myPieceCount;
+            final BitBoard blocks = myTetris.getFrozenBlocks();
+            final TetrisPiece type = myTetris.getCurrentPiece();
+            final Rotation rotation = myTetris.getCurrentRotation();
+            final int x = myTetris.getCurrentX();
+            final int y = myTetris.getCurrentY();
+            final TetrisPiece next = myTetris.getNextPiece();
+            myWorker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final List<BoardCommand> moves =
+                        mySearch.decide(blocks, type, rotation, x, y, next);
+                    EventQueue.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            startPlan(piece, moves, rotation, x, y);
+                        }
+                    });
+                }
+            });
+        }
+    }
+    
+    
+    /**
+     * Plays a plan if it is still for the current piece, or once the game
+     * is no longer paused.
+     * 
+     * @param thePiece The piece count the plan was made for.
+     * @param theMoves The moves of the plan.
+     * @param theRotation The rotation of the piece the plan starts from.
+     * @param theX The column of the piece the plan starts from.
+     * @param theY The row of the piece the plan starts from.
+     */
+    private void startPlan(final int thePiece, final List<BoardCommand> theMoves,
+                           final Rotation theRotation, final int theX, final int theY) {
+        if (myEnabled && thePiece == myPieceCount) {
+            myMoves.addAll(theMoves);
+            myPlanRotation = theRotation;
+            myPlanX = theX;
+            myPlanY = theY;
+            playPlan();
+            if (!myMoves.isEmpty()) {
+                myMoveTimer.start();
+            }
+        }
+    }
+    
+    
+    /**
+     * Plays every move of the plan at once, waiting while the game is
+     * paused.  Plans the piece again if it is no longer where the plan
+     * starts.
+     */
+    private void playPlan() {
+        if (myMoves.isEmpty()) {
+            myMoveTimer.stop();
+        } else if (myGamePanel.isPlayable()) {
+            myMoveTimer.stop();
+            if (myTetris.getCurrentRotation() == myPlanRotation
+                && myTetris.getCurrentX() == myPlanX && myTetris.getCurrentY() == myPlanY) {
+                // the last move locks the piece, which starts the next plan
+                final int piece = myPieceCount;
+                while (piece == myPieceCount && !myMoves.isEmpty()) {
+                    myGamePanel.perform(myMoves.poll());
+                }
+            } else {
+                myMoves.clear();
+                plan();
+            }
+        }
+    }
+
+}
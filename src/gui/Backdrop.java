@@ -0,0 +1,111 @@
+/*
+ * TCSS 305  Winter 2015
+ * Assignment 6 - Tetris
+ */
+
+package gui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import javax.swing.ImageIcon;
+
+/**
+ * The backdrops drawn behind the board.
+ * 
+ * Each image is decoded once, when the backdrop is first used.  The
+ * backdrop also keeps a copy scaled to the size it was last drawn at, in
+ * a format compatible with the screen, so drawing it is a plain copy.
+ * The copy is laid over the panel's background color, so it is opaque and
+ * copied without blending.  It is scaled again only when the board is
+ * resized or the color changes.  A backdrop may be drawn from any thread,
+ * as the active renderer does.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version 08 March 2015
+ */
+public enum Backdrop {
+    
+    /** The backdrop of the classic theme. */
+    CLASSIC("/images/tetris_backdrop.png"),
+    /** The backdrop of the Zelda theme. */
+    ZELDA("/images/backdrop.gif");
+    
+    /** The decoded image. */
+    private final Image myImage;
+    
+    /** The color the scaled image was laid over, or null. */
+    private Color myBackground;
+    
+    /** The image scaled to the size last drawn at, or null. */
+    private BufferedImage myScaled;
+    
+    
+    /**
+     * Decodes the image of the backdrop.
+     * 
+     * @param theImagePath The file path.
+     */
+    Backdrop(final String theImagePath) {
+        final java.net.URL imgURL = getClass().getResource(theImagePath);
+        myImage = new ImageIcon(imgURL).getImage();
+    }
+    
+    
+    /**
+     * Returns the backdrop scaled to a size, scaling it only if it was
+     * last drawn at another size or over another color.
+     * 
+     * @param theWidth The width to draw at.
+     * @param theHeight The height to draw at.
+     * @param theBackground The color the backdrop is drawn over.
+     * @param theConfiguration The configuration of the screen drawn on,
+     *        or null if not yet known.
+     * @return The scaled image.
+     */
+    public synchronized BufferedImage getImage(final int theWidth, final int theHeight,
+                                               final Color theBackground,
+                                               final GraphicsConfiguration theConfiguration) {
+        if (myScaled == null || myScaled.getWidth() != theWidth
+            || myScaled.getHeight() != theHeight || !theBackground.equals(myBackground)) {
+            myScaled = scale(Math.max(1, theWidth), Math.max(1, theHeight),
+                             theBackground, theConfiguration);
+            myBackground = theBackground;
+        }
+        return myScaled;
+    }
+    
+    
+    /**
+     * Scales the image.
+     * 
+     * @param theWidth The width to scale to.
+     * @param theHeight The height to scale to.
+     * @param theBackground The color to lay the image over.
+     * @param theConfiguration The configuration of the screen drawn on,
+     *        or null if not yet known.
+     * @return The scaled image.
+     */
+    private BufferedImage scale(final int theWidth, final int theHeight,
+                                final Color theBackground,
+                                final GraphicsConfiguration theConfiguration) {
+        final BufferedImage result;
+        if (theConfiguration == null) {
+            result = new BufferedImage(theWidth, theHeight, BufferedImage.TYPE_INT_RGB);
+        } else {
+            result = theConfiguration.createCompatibleImage(theWidth, theHeight,
+                                                            Transparency.OPAQUE);
+        }
+        final Graphics2D graphics = result.createGraphics();
+        graphics.setPaint(theBackground);
+        graphics.fillRect(0, 0, theWidth, theHeight);
+        graphics.drawImage(myImage, 0, 0, theWidth, theHeight, null);
+        graphics.dispose();
+        return result;
+    }
+    
+}
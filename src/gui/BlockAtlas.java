@@ -0,0 +1,191 @@
+/*
+ * TCSS 305  Winter 2015
+ * Assignment 6 - Tetris
+ */
+
+package gui;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.TetrisPiece;
+
+import zelda.Guard;
+import zelda.Skelly;
+
+
+/**
+ * Blocks pre-rendered at the current block size, so the game panel draws
+ * each cell of the board with a single image copy.
+ * 
+ * The atlas holds a block for the color and the ghost color of every
+ * TetrisPiece and for the gray of a paused game, and every guard and
+ * skeleton image of the Zelda theme, with a faded guard for ghosts.
+ * Everything is rendered again only when the block size changes.  Blocks
+ * of other colors are rendered when first asked for.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version 08 March 2015
+ */
+public final class BlockAtlas {
+    
+    /** The color a block is drawn in while the game is paused. */
+    public static final Color PAUSED_COLOR = Color.GRAY;
+    
+    /** The color of the edge of a block. */
+    private static final Color EDGE_COLOR = new Color(0, 0, 0, 100);
+    
+    /** The thickness of the edge of a block. */
+    private static final int THICKNESS = 3;
+    
+    /** The opacity of a guard drawn in place of a ghost. */
+    private static final float GHOST_OPACITY = 0.5f;
+    
+    /** The classic blocks by color. */
+    private final Map<Color, BufferedImage> myBlocks;
+    
+    /** The guards by image, then opaque and faded. */
+    private final BufferedImage[][] myGuards;
+    
+    /** The skeletons by image. */
+    private final BufferedImage[] mySkellies;
+    
+    /** The size of the rendered blocks in pixels. */
+    private int myBlockSize;
+    
+    
+    /**
+     * Builds an empty atlas; blocks are rendered once a size is set.
+     */
+    public BlockAtlas() {
+        myBlocks = new HashMap<Color, BufferedImage>();
+        myGuards = new BufferedImage[Guard.values().length][2];
+        mySkellies = new BufferedImage[Skelly.values().length];
+    }
+    
+    
+    /**
+     * Sets the size of the blocks, rendering them again if it changed.
+     * 
+     * @param theBlockSize The size of a block in pixels.
+     */
+    public void setBlockSize(final int theBlockSize) {
+        if (theBlockSize != myBlockSize && theBlockSize > 0) {
+            myBlockSize = theBlockSize;
+            myBlocks.clear();
+            for (final TetrisPiece piece : TetrisPiece.values()) {
+                getBlock(piece.getColor());
+                getBlock(piece.getGhostColor());
+            }
+            getBlock(PAUSED_COLOR);
+            for (final Guard guard : Guard.values()) {
+                myGuards[guard.ordinal()][0] = render(guard.getImage(), 1f);
+                myGuards[guard.ordinal()][1] = render(guard.getImage(), GHOST_OPACITY);
+            }
+            for (final Skelly skelly : Skelly.values()) {
+                mySkellies[skelly.ordinal()] = render(skelly.getImage(), 1f);
+            }
+        }
+    }
+    
+    
+    /**
+     * Returns a classic block.
+     * 
+     * @param theColor The color of the block.
+     * @return The block.
+     */
+    public BufferedImage getBlock(final Color theColor) {
+        BufferedImage result = myBlocks.get(theColor);
+        if (result == null) {
+            result = render(theColor);
+            myBlocks.put(theColor, result);
+        }
+        return result;
+    }
+    
+    
+    /**
+     * Returns a guard drawn in place of a block.
+     * 
+     * @param theGuard The guard image.
+     * @param theGhost Whether the guard is faded, in place of a ghost.
+     * @return The guard.
+     */
+    public BufferedImage getGuard(final Guard theGuard, final boolean theGhost) {
+        int index = 0;
+        if (theGhost) {
+            index = 1;
+        }
+        return myGuards[theGuard.ordinal()][index];
+    }
+    
+    
+    /**
+     * Returns a skeleton drawn in place of a block.
+     * 
+     * @param theSkelly The skeleton image.
+     * @return The skeleton.
+     */
+    public BufferedImage getSkelly(final Skelly theSkelly) {
+        return mySkellies[theSkelly.ordinal()];
+    }
+    
+    
+    /**
+     * Renders a classic block: filled with its color, with a dark edge.
+     * 
+     * @param theColor The color of the block.
+     * @return The block.
+     */
+    private BufferedImage render(final Color theColor) {
+        final BufferedImage result = createBlock();
+        final Graphics2D graphics = result.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                  RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setPaint(theColor);
+        graphics.fillRect(0, 0, myBlockSize, myBlockSize);
+        graphics.setPaint(EDGE_COLOR);
+        graphics.setStroke(new BasicStroke(THICKNESS));
+        graphics.drawRect(THICKNESS / 2, THICKNESS / 2,
+                          myBlockSize - THICKNESS, myBlockSize - THICKNESS);
+        graphics.dispose();
+        return result;
+    }
+    
+    
+    /**
+     * Renders an image scaled to a block.
+     * 
+     * @param theImage The image.
+     * @param theOpacity The opacity to draw the image with.
+     * @return The block.
+     */
+    private BufferedImage render(final Image theImage, final float theOpacity) {
+        final BufferedImage result = createBlock();
+        final Graphics2D graphics = result.createGraphics();
+        graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
+                                                         theOpacity));
+        graphics.drawImage(theImage, 0, 0, myBlockSize, myBlockSize, null);
+        graphics.dispose();
+        return result;
+    }
+    
+    
+    /**
+     * Creates an empty block.
+     * 
+     * @return A transparent image the size of a block.
+     */
+    private BufferedImage createBlock() {
+        return new BufferedImage(myBlockSize, myBlockSize, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+    
+}
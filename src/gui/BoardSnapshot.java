@@ -0,0 +1,78 @@
+/*
+ * TCSS 305  Winter 2015
+ * Assignment 6 - Tetris
+ */
+
+package gui;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * An unchanging copy of the board as it is shown: the color of every
+ * cell, with the moving piece and its ghost, and whether the game is over.
+ * 
+ * The thread running the game publishes a new snapshot after each change,
+ * and a render thread draws whichever snapshot is newest, so neither
+ * waits for the other.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version 08 March 2015
+ */
+public final class BoardSnapshot {
+    
+    /** The colors of the cells by row, bottom first, then column. */
+    private final Color[][] myCells;
+    
+    /** Whether the game is over. */
+    private final boolean myGameOver;
+    
+    
+    /**
+     * Copies board data into a snapshot.
+     * 
+     * @param theData The colors of the cells by row, bottom first; null
+     *        for an empty cell.
+     * @param theGameOver Whether the game is over.
+     */
+    public BoardSnapshot(final List<Color[]> theData, final boolean theGameOver) {
+        myCells = new Color[theData.size()][];
+        for (int y = 0; y < myCells.length; y++) {
+            myCells[y] = theData.get(y).clone();
+        }
+        myGameOver = theGameOver;
+    }
+    
+    
+    /**
+     * Returns the number of rows, including those hidden above the board.
+     * 
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return myCells.length;
+    }
+    
+    
+    /**
+     * Returns the color of a cell.
+     * 
+     * @param theX The column of the cell.
+     * @param theY The row of the cell, from the bottom.
+     * @return The color, or null if the cell is empty.
+     */
+    public Color getColor(final int theX, final int theY) {
+        return myCells[theY][theX];
+    }
+    
+    
+    /**
+     * Returns whether the game is over.
+     * 
+     * @return True if the game is over.
+     */
+    public boolean isGameOver() {
+        return myGameOver;
+    }
+    
+}
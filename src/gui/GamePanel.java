@@ -5,35 +5,39 @@
 
 package gui;
 
-import java.awt.AlphaComposite;
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.awt.Stroke;
+import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
-import java.util.Observer;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
-import javax.swing.ImageIcon;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
 import model.Board;
 import model.Board.BoardData;
 import model.Board.CompletedLines;
+import model.Board.PieceLocked;
+import model.Board.PieceMoved;
+import model.BoardCommand;
+import model.BoardListener;
+import model.GameEngine;
+import model.MovableTetrisPiece;
 import model.Point;
+import model.TetrisPiece;
 
 import sound.SoundEffects;
 import sound.SoundPlayer;
@@ -49,7 +53,7 @@ import zelda.Skelly;
  * @version 08 March 2015
  */
 @SuppressWarnings("serial")
-public class GamePanel extends JPanel implements Observer {
+public class GamePanel extends JPanel implements BoardListener {
 
     /** Font size of game over message. */
     private static final int FONT_SIZE = 6;
@@ -57,9 +61,6 @@ public class GamePanel extends JPanel implements Observer {
     private static final Dimension PREFERRED_DIMENSION = new Dimension(400, 800);
     /** The amount of lines removed from the top of the Tetris board. */
     private static final int REMOVED_LINES = 4;
-    /** The amount of padding for the inner square in each tetris block. */
-    private static final int PADDING = 0;
-    private static final int THICKNESS = 3;
     /** The default font for messages. */
     private static final String DEFAULT_FONT = "Verdana";
     
@@ -93,20 +94,28 @@ public class GamePanel extends JPanel implements Observer {
     /** The size of the rendered block in pixels. */
     private int myBlockSize;
     
+    /** The blocks pre-rendered at the block size. */
+    private final BlockAtlas myAtlas = new BlockAtlas();
+    
     /** The origin point of the rendered Tetris board. */
     private Point myOrigin;
     
     /** The Tetris game. */
     private final Board myTetris;
     
-    /** The tetris data for block locations. */
+    /** The engine running the Tetris game. */
+    private final GameEngine myEngine;
+    
+    /** 
+     * The tetris data for block locations, patched by every board change.
+     */
     private List<Color[]> myGameData;
     
     /** 
-     * Auxiliary storage for board data.  Used to quickly update game
-     * after an animation.
+     * Copy of the board data from before lines were cleared.  Shown
+     * while an animation runs.
      */
-    private List<Color[]> myTempData;
+    private List<Color[]> myAnimationData;
     
     /** The timer used to run the tetris game. */
     private final Timer myTimer;
@@ -117,6 +126,9 @@ public class GamePanel extends JPanel implements Observer {
     /** Indicates that the game is paused. */
     private boolean myGameIsPaused;
     
+    /** Indicates that a replay is shown instead of a game. */
+    private boolean myWatchingReplay;
+    
     /** The map of actions and their key code. */
     private Map<KeyAction, Integer> myKeys;
     
@@ -156,19 +168,32 @@ public class GamePanel extends JPanel implements Observer {
     /** Current skeleton image. */
     private Skelly mySkelly;
     
+    /** The moving piece as last shown, or null. */
+    private MovableTetrisPiece myPiece;
+    
+    /** The ghost of the moving piece as last shown, or null. */
+    private MovableTetrisPiece myGhost;
+    
+    /** The backdrop and frozen blocks, drawn under the moving piece. */
+    private BufferedImage myStaticLayer;
+    
+    /** Whether the static layer shows the current board. */
+    private boolean myStaticLayerIsValid;
+    
     
     
     /**
      * Builds the display panel for a game of tetris.
      * 
-     * @param theTetris The tetris game.
+     * @param theEngine The engine running the tetris game.
      * @param theTimer The tetris game timer.
      * @param thePlayer The player for playing sound.
      */
-    public GamePanel(final Board theTetris, final Timer theTimer,
+    public GamePanel(final GameEngine theEngine, final Timer theTimer,
                      final SoundPlayer thePlayer) {
         super(true);  // Sets JPanel to enable double buffering.
-        myTetris = theTetris;
+        myEngine = theEngine;
+        myTetris = theEngine.getBoard();
         initialize();
         setBlockSize();
         myTimer = theTimer;
@@ -190,6 +215,7 @@ public class GamePanel extends JPanel implements Observer {
         myZeldaTheme = false;
         myGameIsOver = false;
         myGameIsPaused = false;
+        myWatchingReplay = false;
         myKeys = new HashMap<KeyAction, Integer>();
         myDeadGuards = myTetris.getWidth();
     }
@@ -210,9 +236,11 @@ public class GamePanel extends JPanel implements Observer {
                 myLink = myLink.advance();
                 if (myLink.equals(Link.LINK_1)) {
                     myLinkIsAnimated = false;
+                    invalidateStaticLayer();
                     myLinkTimer.stop();
-                    myTimer.start();
-                    myGameData = myTempData;
+                    if (!myWatchingReplay) {
+                        myTimer.start();
+                    }
                 }
             }
         });
@@ -263,7 +291,10 @@ public class GamePanel extends JPanel implements Observer {
             public void actionPerformed(final ActionEvent theEvent) {
                 myGuard = myGuard.advance();
                 mySkelly = mySkelly.advance();
-                repaint();
+                if (myZeldaTheme) {
+                    invalidateStaticLayer();
+                    repaint();
+                }
             }
         });
         return time;
@@ -272,7 +303,8 @@ public class GamePanel extends JPanel implements Observer {
     
     /**
      * Calculates the rendered block size depending on the height and
-     * width of the game panel.
+     * width of the game panel, rendering the block atlas again if the
+     * size changed.
      */
     private void setBlockSize() {
         final int blockHeightCheck = this.getHeight() / myTetris.getHeight();
@@ -283,6 +315,7 @@ public class GamePanel extends JPanel implements Observer {
         } else {
             myBlockSize = blockWidthCheck;
         }
+        myAtlas.setBlockSize(myBlockSize);
     }
     
     
@@ -291,6 +324,7 @@ public class GamePanel extends JPanel implements Observer {
      */
     private void runLinkAnimation() {
         myLinkIsAnimated = true;
+        invalidateStaticLayer();
         myTimer.stop();
         myLinkTimer.start();
     }
@@ -321,6 +355,7 @@ public class GamePanel extends JPanel implements Observer {
      */
     public void updateTheme(final boolean theThemeStatus) {
         myZeldaTheme = theThemeStatus;
+        invalidateStaticLayer();
         repaint();
     }
     
@@ -342,6 +377,7 @@ public class GamePanel extends JPanel implements Observer {
      */
     public void newGame() {
         myGameIsOver = false;
+        myWatchingReplay = false;
         unpause();
         myKeyBindings.disableAllKeys();
         myTetris.clear();
@@ -350,6 +386,19 @@ public class GamePanel extends JPanel implements Observer {
     }
     
     
+    /**
+     * Shows a replay: the board is played by a ReplayPlayer, so the
+     * keys are disabled until the next new game.
+     */
+    public void watchReplay() {
+        myGameIsOver = false;
+        myGameIsPaused = false;
+        myWatchingReplay = true;
+        myKeyBindings.disableAllKeys();
+        repaint();
+    }
+    
+    
     /**
      * Toggles the state of pause for Tetris.
      */
@@ -367,11 +416,12 @@ public class GamePanel extends JPanel implements Observer {
      * and disabling key bindings.
      */
     public void pause() {
-        if (!myGameIsOver) {
+        if (!myGameIsOver && !myWatchingReplay) {
             myKeyBindings.disableAllKeys();
             myKeyBindings.enableKey(myPauseKeyAction);
             myTimer.stop();
             myGameIsPaused = true;
+            invalidateStaticLayer();
             repaint();
         }
     }
@@ -383,15 +433,42 @@ public class GamePanel extends JPanel implements Observer {
      * over.
      */
     public void unpause() {
-        if (!myGameIsOver) {
+        if (!myGameIsOver && !myWatchingReplay) {
             myKeyBindings.enableAllKeys();
             myTimer.start();
         }
         myGameIsPaused = false;
+        invalidateStaticLayer();
         repaint();
     }
     
     
+    /**
+     * Performs a move of the current piece, as the key bindings do.
+     * Moves go through the game engine, so they are recorded with the
+     * gravity steps.
+     * 
+     * @param theCommand The move to perform.
+     */
+    public void perform(final BoardCommand theCommand) {
+        myEngine.execute(theCommand);
+        if (theCommand == BoardCommand.DROP) {
+            SoundEffects.BLOCK.play(mySoundPlayer);
+        }
+    }
+    
+    
+    /**
+     * Returns whether the game accepts moves: it is neither paused
+     * nor over, nor a replay being shown.
+     * 
+     * @return True if moves can be performed.
+     */
+    public boolean isPlayable() {
+        return !myGameIsPaused && !myGameIsOver && !myWatchingReplay;
+    }
+    
+    
     /**
      * Gets the map of key bindings.
      * 
@@ -425,7 +502,6 @@ public class GamePanel extends JPanel implements Observer {
      */
     @Override
     public void paintComponent(final Graphics theGraphics) {
-        super.paintComponent(theGraphics);
         final Graphics2D graphic = (Graphics2D) theGraphics;
         graphic.setRenderingHint(RenderingHints.KEY_ANTIALIASING, 
                                  RenderingHints.VALUE_ANTIALIAS_ON);
@@ -437,14 +513,11 @@ public class GamePanel extends JPanel implements Observer {
         final Point panelCenter = new Point(this.getWidth() / 2, this.getHeight() / 2);
         myOrigin = new Point(panelCenter.x() - center.x(), panelCenter.y() - center.y());
         
-        // Draws the game backdrop.
-        drawBackground(graphic, center);
-        
-        // Draws the board through a 2d array for the coordinates.
-        for (int y = 0; y < myGameData.size() - REMOVED_LINES; y++) {
-            for (int x = 0; x < myGameData.get(y).length; x++) {
-                drawBlock(x, y, graphic);
-            }
+        // Draws the backdrop and frozen blocks, then the moving piece over them.
+        drawStaticLayer(graphic, center);
+        if (!myLinkIsAnimated) {
+            drawPiece(myGhost, graphic);
+            drawPiece(myPiece, graphic);
         }
         
         if (myLinkIsAnimated && !myCompletedLines.getCompletedLines().isEmpty()) {
@@ -470,6 +543,169 @@ public class GamePanel extends JPanel implements Observer {
     }
     
     
+    /**
+     * Draws the static layer: the panel background, the backdrop and every
+     * block but those of the moving piece and its ghost.  The layer is
+     * kept in an image and drawn again only when it is invalidated, which
+     * the board does when a piece locks or lines clear; a moving piece
+     * only costs the blocks drawn over it.
+     * 
+     * @param theGraphics The graphics.
+     * @param theCenter The center of the game.
+     */
+    private void drawStaticLayer(final Graphics2D theGraphics, final Point theCenter) {
+        if (getWidth() > 0 && getHeight() > 0) {
+            if (myStaticLayer == null || myStaticLayer.getWidth() != getWidth()
+                || myStaticLayer.getHeight() != getHeight()) {
+                myStaticLayer = createStaticLayer();
+                myStaticLayerIsValid = false;
+            }
+            if (!myStaticLayerIsValid) {
+                final Graphics2D graphic = myStaticLayer.createGraphics();
+                graphic.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                         RenderingHints.VALUE_ANTIALIAS_ON);
+                graphic.setPaint(getBackground());
+                graphic.fillRect(0, 0, getWidth(), getHeight());
+                drawBackground(graphic, theCenter);
+                final List<Color[]> data = getDisplayData();
+                final boolean[][] moving = new boolean[data.size()][myTetris.getWidth()];
+                if (!myLinkIsAnimated) {
+                    markPiece(moving, myGhost);
+                    markPiece(moving, myPiece);
+                }
+                for (int y = 0; y < data.size() - REMOVED_LINES; y++) {
+                    for (int x = 0; x < data.get(y).length; x++) {
+                        if (!moving[y][x]) {
+                            drawBlock(x, y, data.get(y)[x], graphic);
+                        }
+                    }
+                }
+                graphic.dispose();
+                myStaticLayerIsValid = true;
+            }
+            theGraphics.drawImage(myStaticLayer, 0, 0, null);
+        }
+    }
+    
+    
+    /**
+     * Creates an image the size of the panel for the static layer.
+     * 
+     * @return The image.
+     */
+    private BufferedImage createStaticLayer() {
+        final BufferedImage result;
+        if (getGraphicsConfiguration() == null) {
+            result = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+        } else {
+            result = getGraphicsConfiguration().createCompatibleImage(getWidth(), getHeight(),
+                                                                      Transparency.OPAQUE);
+        }
+        return result;
+    }
+    
+    
+    /**
+     * Marks the blocks of a piece, which are left out of the static layer.
+     * 
+     * @param theMarks The marks, indexed by row and then column.
+     * @param thePiece The piece, or null for no piece.
+     */
+    private void markPiece(final boolean[][] theMarks, final MovableTetrisPiece thePiece) {
+        if (thePiece != null) {
+            for (final Point p : thePiece.getBoardPoints()) {
+                if (p.y() >= 0 && p.y() < theMarks.length) {
+                    theMarks[p.y()][p.x()] = true;
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Draws the blocks of a piece over the static layer, in the colors the
+     * board data holds for them.
+     * 
+     * @param thePiece The piece, or null for no piece.
+     * @param theGraphics The graphics.
+     */
+    private void drawPiece(final MovableTetrisPiece thePiece, final Graphics2D theGraphics) {
+        if (thePiece != null) {
+            for (final Point p : thePiece.getBoardPoints()) {
+                if (p.y() >= 0 && p.y() < myGameData.size() - REMOVED_LINES) {
+                    drawBlock(p.x(), p.y(), myGameData.get(p.y())[p.x()], theGraphics);
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Repaints the cells a piece move changed: those of the old and new
+     * piece and ghost.  Only they differ from the static layer, so the rest
+     * of the panel is left alone unless the layer must be drawn again.
+     * Swing merges the regions of every move before the next paint, so
+     * several moves in a frame are painted together.
+     * 
+     * @param theOldGhost The old ghost, or null.
+     * @param theOldPiece The old piece, or null.
+     * @param theNewGhost The new ghost, or null.
+     * @param theNewPiece The new piece, or null.
+     */
+    private void repaintCells(final MovableTetrisPiece theOldGhost,
+                              final MovableTetrisPiece theOldPiece,
+                              final MovableTetrisPiece theNewGhost,
+                              final MovableTetrisPiece theNewPiece) {
+        if (myOrigin == null || !myStaticLayerIsValid) {
+            repaint();
+        } else {
+            Rectangle dirty = addCells(null, theOldGhost);
+            dirty = addCells(dirty, theOldPiece);
+            dirty = addCells(dirty, theNewGhost);
+            dirty = addCells(dirty, theNewPiece);
+            if (dirty != null) {
+                repaint(dirty);
+            }
+        }
+    }
+    
+    
+    /**
+     * Adds the cells of a piece to a region of the panel.
+     * 
+     * @param theRegion The region, or null for none.
+     * @param thePiece The piece, or null for no piece.
+     * @return The region covering the cells as well, or null if there is
+     *         still none.
+     */
+    private Rectangle addCells(final Rectangle theRegion, final MovableTetrisPiece thePiece) {
+        Rectangle result = theRegion;
+        if (thePiece != null) {
+            for (final Point p : thePiece.getBoardPoints()) {
+                final Rectangle cell =
+                    new Rectangle(p.x() * myBlockSize + myOrigin.x(),
+                                  (myTetris.getHeight() - p.y() - 1) * myBlockSize
+                                      + myOrigin.y(),
+                                  myBlockSize, myBlockSize);
+                if (result == null) {
+                    result = cell;
+                } else {
+                    result.add(cell);
+                }
+            }
+        }
+        return result;
+    }
+    
+    
+    /**
+     * Marks the static layer to be drawn again on the next repaint.
+     */
+    private void invalidateStaticLayer() {
+        myStaticLayerIsValid = false;
+    }
+    
+    
     /**
      * Draws the game over pop up.
      * 
@@ -527,31 +763,27 @@ public class GamePanel extends JPanel implements Observer {
     
     
     /**
-     * Backdrop of the tetris game area.
+     * Backdrop of the tetris game area.  The backdrop is decoded and
+     * scaled once, not on every repaint.
      * 
      * @param theGraphics The graphics tool.
      * @param theCenter The center of the game.
      */
     private void drawBackground(final Graphics2D theGraphics, final Point theCenter) {
+        Backdrop backdrop = Backdrop.CLASSIC;
         if (myZeldaTheme) {
-            java.net.URL imgURL = getClass().getResource("/images/backdrop.gif");
-            theGraphics.drawImage(new ImageIcon(imgURL).getImage(),
-                              myOrigin.x(),
-                              myOrigin.y(),
-                              theCenter.x() * 2,
-                              theCenter.y() * 2, null);
+            backdrop = Backdrop.ZELDA;
         } else {
             theGraphics.setPaint(Color.BLACK);
             theGraphics.fillRect(0, 0,
                                  this.getWidth(),
                                  this.getHeight());
-            java.net.URL imgURL = getClass().getResource("/images/tetris_backdrop.png");
-            theGraphics.drawImage(new ImageIcon(imgURL).getImage(),
+        }
+        theGraphics.drawImage(backdrop.getImage(theCenter.x() * 2, theCenter.y() * 2,
+                                                getBackground(), getGraphicsConfiguration()),
                               myOrigin.x(),
                               myOrigin.y(),
-                              theCenter.x() * 2,
-                              theCenter.y() * 2, null);
-        }
+                              null);
     }
     
     
@@ -563,10 +795,10 @@ public class GamePanel extends JPanel implements Observer {
     private void drawSkellies(final Graphics2D theGraphics) {
         for (final Integer row : myCompletedLines.getCompletedLines()) {
             for (int col = myTetris.getWidth() - 1; col >= myDeadGuards; col--) {
-                theGraphics.drawImage(mySkelly.getImage(),
+                theGraphics.drawImage(myAtlas.getSkelly(mySkelly),
                                 col * myBlockSize + myOrigin.x(),
                                 (myTetris.getHeight() - row - 1) * myBlockSize + myOrigin.y(),
-                                myBlockSize, myBlockSize, null);
+                                null);
             }
         }
     }
@@ -575,55 +807,44 @@ public class GamePanel extends JPanel implements Observer {
     
     
     /**
-     * Draws a single tetris block.
+     * Returns the board data to render.  The board is held still while
+     * Link clears lines.
+     * 
+     * @return The board data to render.
+     */
+    private List<Color[]> getDisplayData() {
+        List<Color[]> data = myGameData;
+        if (myLinkIsAnimated) {
+            data = myAnimationData;
+        }
+        return data;
+    }
+    
+    
+    /**
+     * Draws a single tetris block with one copy from the block atlas.
      * 
      * @param theX The x coordinate of the block.
      * @param theY The y coordinate of the block.
+     * @param theColor The color of the block, or null if there is no block.
      * @param theGraphics The graphics.
      */
-    private void drawBlock(final int theX, final int theY, final Graphics2D theGraphics) {
-        theGraphics.setPaint(Color.GRAY);
-        if (myGameData.get(theY)[theX] != null) {
+    private void drawBlock(final int theX, final int theY, final Color theColor,
+                           final Graphics2D theGraphics) {
+        if (theColor != null) {
+            Color color = BlockAtlas.PAUSED_COLOR;
             if (!myGameIsPaused) {
-                theGraphics.setPaint(myGameData.get(theY)[theX]);
+                color = theColor;
             }
+            theGraphics.setPaint(color);
             if (myZeldaTheme) {
-                /*
-                float opacity = 0.55f;
-                Color oldColor = theGraphics.getColor();
-                Stroke oldStroke = theGraphics.getStroke();
-                theGraphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity));
-                
-                theGraphics.fillOval(theX * myBlockSize + myOrigin.x(),
-                                     (myTetris.getHeight() - theY - 1) * myBlockSize + myOrigin.y(),
-                                      myBlockSize, myBlockSize);
-                
-                theGraphics.setPaint(new Color(0, 0, 0, 255));
-                theGraphics.setStroke(new BasicStroke(THICKNESS));
-                theGraphics.drawOval(theX * myBlockSize + myOrigin.x() + PADDING + (THICKNESS/2),
-                                     (myTetris.getHeight() - theY - 1) 
-                                                       * myBlockSize + myOrigin.y() + PADDING + (THICKNESS/2),
-                                     myBlockSize - (PADDING * 2) - THICKNESS,
-                                     myBlockSize - (PADDING * 2) - THICKNESS);
-                
-                theGraphics.setStroke(oldStroke);
-                theGraphics.setPaint(oldColor);
-                theGraphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
-                */
                 drawGuards(theX, theY, theGraphics);
             } else {
-                theGraphics.fillRect(theX * myBlockSize + myOrigin.x(),
-                                (myTetris.getHeight() - theY - 1) * myBlockSize + myOrigin.y(),
-                                 myBlockSize, myBlockSize);
-                theGraphics.setPaint(new Color(0, 0, 0, 100));
-                Stroke oldStroke = theGraphics.getStroke();
-                theGraphics.setStroke(new BasicStroke(THICKNESS));
-                theGraphics.drawRect(theX * myBlockSize + myOrigin.x() + PADDING + (THICKNESS/2),
-                                     (myTetris.getHeight() - theY - 1) 
-                                                       * myBlockSize + myOrigin.y() + PADDING + (THICKNESS/2),
-                                     myBlockSize - (PADDING * 2) - THICKNESS,
-                                     myBlockSize - (PADDING * 2) - THICKNESS);
-                theGraphics.setStroke(oldStroke);
+                theGraphics.drawImage(myAtlas.getBlock(color),
+                                      theX * myBlockSize + myOrigin.x(),
+                                      (myTetris.getHeight() - theY - 1) * myBlockSize
+                                          + myOrigin.y(),
+                                      null);
             }
         }
     }
@@ -637,36 +858,121 @@ public class GamePanel extends JPanel implements Observer {
      * @param theGraphics The rendering graphics.
      */
     public void drawGuards(final int theX, final int theY, final Graphics2D theGraphics) {
-        Image img = myGuard.getImage();
-        if (theGraphics.getColor().getAlpha() < 250) {
-            float opacity = 0.5f;
-            theGraphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity));
-        }
-        
-        theGraphics.drawImage(img,
+        final boolean ghost = theGraphics.getColor().getAlpha() < 250;
+        theGraphics.drawImage(myAtlas.getGuard(myGuard, ghost),
                               theX * myBlockSize + myOrigin.x(),
                               (myTetris.getHeight() - theY - 1) * myBlockSize + myOrigin.y(),
-                              myBlockSize,
-                              myBlockSize,
                               null);
-        theGraphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
     }
     
     
-    @Override
-    public void update(final Observable theObj, final Object theArg) {
-        if (theArg instanceof CompletedLines) {
-            myCompletedLines = (CompletedLines) theArg;
-            if (myZeldaTheme) {
-                runLinkAnimation();
+    /**
+     * Sets the blocks of a piece in the board data.
+     * 
+     * @param thePiece The piece, or null for no piece.
+     * @param theColor The color to set, or null to erase the blocks.
+     */
+    private void setBlocks(final MovableTetrisPiece thePiece, final Color theColor) {
+        if (thePiece != null) {
+            for (final Point p : thePiece.getBoardPoints()) {
+                if (p.y() >= 0 && p.y() < myGameData.size()) {
+                    myGameData.get(p.y())[p.x()] = theColor;
+                }
             }
-        } else if (!myLinkIsAnimated && theArg instanceof BoardData) {
-            myGameData = ((BoardData) theArg).getBoardData();
-        } else if (myLinkIsAnimated && theArg instanceof BoardData) {
-            myTempData = ((BoardData) theArg).getBoardData();
         }
+    }
+    
+    
+    /**
+     * Removes cleared lines from the board data and adds empty lines on top.
+     * 
+     * @param theLines The indexes of the cleared lines in ascending order.
+     */
+    private void removeLines(final List<Integer> theLines) {
+        for (int i = theLines.size() - 1; i >= 0; i--) {
+            myGameData.remove((int) theLines.get(i));
+            myGameData.add(new Color[myTetris.getWidth()]);
+        }
+    }
+    
+    
+    /**
+     * Copies the board data.
+     * 
+     * @return A copy of the board data.
+     */
+    private List<Color[]> copyGameData() {
+        final List<Color[]> copy = new ArrayList<Color[]>();
+        for (final Color[] row : myGameData) {
+            copy.add(row.clone());
+        }
+        return copy;
+    }
+    
+    
+    @Override
+    public void onBoardReset(final BoardData theData) {
+        myGameData = theData.getBoardData();
+        myPiece = theData.getPiece();
+        myGhost = theData.getGhost();
+        invalidateStaticLayer();
         repaint();
-        //System.out.println(myTetris);
+    }
+    
+    
+    @Override
+    public void onPieceMoved(final PieceMoved theMove) {
+        // each getter builds a new piece, so read every one once
+        final MovableTetrisPiece oldGhost = theMove.getOldGhost();
+        final MovableTetrisPiece oldPiece = theMove.getOldPiece();
+        setBlocks(oldGhost, null);
+        setBlocks(oldPiece, null);
+        final MovableTetrisPiece ghost = theMove.getNewGhost();
+        if (ghost != null) {
+            setBlocks(ghost, ghost.getTetrisPiece().getGhostColor());
+        }
+        final MovableTetrisPiece piece = theMove.getNewPiece();
+        if (piece != null) {
+            setBlocks(piece, piece.getTetrisPiece().getColor());
+        }
+        repaintCells(oldGhost, oldPiece, ghost, piece);
+        myGhost = ghost;
+        myPiece = piece;
+    }
+    
+    
+    @Override
+    public void onPieceLocked(final PieceLocked theLock) {
+        setBlocks(theLock.getGhost(), null);
+        myGhost = null;
+        myPiece = null;
+        invalidateStaticLayer();
+        repaint();
+    }
+    
+    
+    @Override
+    public void onLinesCleared(final CompletedLines theLines) {
+        myCompletedLines = theLines;
+        if (myZeldaTheme) {
+            myAnimationData = copyGameData();
+            runLinkAnimation();
+        }
+        removeLines(myCompletedLines.getCompletedLines());
+        invalidateStaticLayer();
+        repaint();
+    }
+    
+    
+    @Override
+    public void onNextPiece(final TetrisPiece thePiece) {
+        // The next piece is shown by the NextPiecePanel.
+    }
+    
+    
+    @Override
+    public void onGameOver() {
+        // The game over message is shown when the TetrisGUI ends the game.
     }
     
     
@@ -679,7 +985,7 @@ public class GamePanel extends JPanel implements Observer {
         final Action leftAction = new AbstractAction() {
             @Override
             public void actionPerformed(final ActionEvent theEvent) {
-                myTetris.left();
+                perform(BoardCommand.LEFT);
             }
         };
         myKeys.put(new KeyAction(leftAction, "Left"), DEFAULT_LEFT_BINDING);
@@ -688,7 +994,7 @@ public class GamePanel extends JPanel implements Observer {
         final Action rightAction = new AbstractAction() {
             @Override
             public void actionPerformed(final ActionEvent theEvent) {
-                myTetris.right();
+                perform(BoardCommand.RIGHT);
             }
         };
         myKeys.put(new KeyAction(rightAction, "Right"), DEFAULT_RIGHT_BINDING);
@@ -697,7 +1003,7 @@ public class GamePanel extends JPanel implements Observer {
         final Action downAction = new AbstractAction() {
             @Override
             public void actionPerformed(final ActionEvent theEvent) {
-                myTetris.down();
+                perform(BoardCommand.DOWN);
             }
         };
         myKeys.put(new KeyAction(downAction, "Down"), DEFAULT_DOWN_BINDING);
@@ -706,7 +1012,7 @@ public class GamePanel extends JPanel implements Observer {
         final Action cwAction = new AbstractAction() {
             @Override
             public void actionPerformed(final ActionEvent theEvent) {
-                myTetris.rotateCW();
+                perform(BoardCommand.ROTATE_CW);
             }
         };
         myKeys.put(new KeyAction(cwAction, "Clockwise"), DEFAULT_CW_BINDING);
@@ -715,7 +1021,7 @@ public class GamePanel extends JPanel implements Observer {
         final Action ccwAction = new AbstractAction() {
             @Override
             public void actionPerformed(final ActionEvent theEvent) {
-                myTetris.rotateCCW();
+                perform(BoardCommand.ROTATE_CCW);
             }
         };
         myKeys.put(new KeyAction(ccwAction, "Counterclockwise"), DEFAULT_CCW_BINDING);
@@ -724,8 +1030,7 @@ public class GamePanel extends JPanel implements Observer {
         final Action dropAction = new AbstractAction() {
             @Override
             public void actionPerformed(final ActionEvent theEvent) {
-                myTetris.drop();
-                SoundEffects.BLOCK.play(mySoundPlayer);
+                perform(BoardCommand.DROP);
             }
         };
         myKeys.put(new KeyAction(dropAction, "Drop"), DEFAULT_DROP_BINDING);
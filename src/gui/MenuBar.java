@@ -17,6 +17,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,6 +27,7 @@ import javax.swing.ButtonGroup;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JMenu;
@@ -38,6 +40,7 @@ import javax.swing.JSlider;
 import javax.swing.JTextField;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 import sound.MusicList;
 import sound.MusicPlayer;
@@ -56,6 +59,8 @@ public class MenuBar extends JMenuBar {
     
     /** Name of the property update for when the game is paused. */
     private static final String PAUSE_UPDATE = "PauseGameUpdate";
+    /** The file extension of replays. */
+    private static final String REPLAY_EXTENSION = "replay";
     /** The field length of the text fields in the key bindings window. */
     private static final int TEXT_LENGTH = 5;
     /** File path of the basic icon. */
@@ -108,6 +113,9 @@ public class MenuBar extends JMenuBar {
     /** Menu item for ending the current game. */
     private JMenuItem myEndGameItem;
     
+    /** The file chooser for opening and saving replays. */
+    private JFileChooser myReplayChooser;
+    
     /** The sound player. */
     private final SoundPlayer mySoundPlayer;
     
@@ -148,6 +156,9 @@ public class MenuBar extends JMenuBar {
         myActionFields = new HashMap<KeyAction, JTextField>();
         myEndGameItem = new JMenuItem("End Game");
         myNewGameItem = new JMenuItem("New Game");
+        myReplayChooser = new JFileChooser();
+        myReplayChooser.setFileFilter(new FileNameExtensionFilter("Tetris replays",
+                                                                  REPLAY_EXTENSION));
     }
     
     
@@ -288,6 +299,39 @@ public class MenuBar extends JMenuBar {
             }
         });
         menu.add(myEndGameItem);
+        menu.addSeparator();
+        
+        final JMenuItem openReplay = new JMenuItem("Open Replay...", KeyEvent.VK_O);
+        openReplay.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent theEvent) {
+                firePropertyChange(PAUSE_UPDATE, null, theEvent);
+                if (myReplayChooser.showOpenDialog(myGamePanel.getParent())
+                                == JFileChooser.APPROVE_OPTION) {
+                    firePropertyChange("OpenReplayUpdate", null,
+                                       myReplayChooser.getSelectedFile());
+                    gameOver();
+                }
+            }
+        });
+        menu.add(openReplay);
+        
+        final JMenuItem saveReplay = new JMenuItem("Save Replay...", KeyEvent.VK_S);
+        saveReplay.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent theEvent) {
+                firePropertyChange(PAUSE_UPDATE, null, theEvent);
+                if (myReplayChooser.showSaveDialog(myGamePanel.getParent())
+                                == JFileChooser.APPROVE_OPTION) {
+                    File file = myReplayChooser.getSelectedFile();
+                    if (!file.getName().endsWith("." + REPLAY_EXTENSION)) {
+                        file = new File(file.getPath() + "." + REPLAY_EXTENSION);
+                    }
+                    firePropertyChange("SaveReplayUpdate", null, file);
+                }
+            }
+        });
+        menu.add(saveReplay);
         return menu;
     }
     
@@ -381,6 +425,15 @@ public class MenuBar extends JMenuBar {
             }
         });
         options.add(zeldaTheme);
+        
+        final JCheckBoxMenuItem autoPlay = new JCheckBoxMenuItem("AI Autoplay");
+        autoPlay.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent theEvent) {
+                firePropertyChange("AutoPlayUpdate", null, autoPlay.isSelected());
+            }
+        });
+        options.add(autoPlay);
         return options;
     }
     
@@ -14,8 +14,6 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
 import java.awt.geom.Rectangle2D;
-import java.util.Observable;
-import java.util.Observer;
 
 import javax.swing.JPanel;
 
@@ -29,7 +27,7 @@ import model.TetrisPiece;
  * @version 04 March 2015
  */
 @SuppressWarnings("serial")
-public class NextPiecePanel extends JPanel implements Observer {
+public class NextPiecePanel extends JPanel {
     
     /** The padding of the panel. */
     private static final double PADDING = 0.50;
@@ -165,20 +163,5 @@ public class NextPiecePanel extends JPanel implements Observer {
                                this.getWidth() / 2 - BLACK_BOX_LENGTH + FONT_SHIFT,
                                BORDER_PADDING * 2);
     }
-    
-    
-    /**
-     * The observer method for listening for the next tetris piece.
-     * 
-     * @param theObj The object sending the update.
-     * @param theArg The data being sent.
-     */
-    public void update(final Observable theObj, final Object theArg) {
-        if (theArg instanceof TetrisPiece) {
-            myNextPiece = (TetrisPiece) theArg;
-            //repaint();
-        }
-        repaint();
-    }
 
 }
@@ -12,48 +12,26 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GridLayout;
-import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import model.Board.CompletedLines;
+import model.ScoreKeeper;
 
 import sound.SoundEffects;
 import sound.SoundPlayer;
 
 
 /**
- * Observes when lines are cleared and updates the score accordingly.
+ * Updates the score whenever lines are cleared.
  * 
  * @author Justin Arnett (jarnett@uw.edu)
  * @version 08 March 2015
  */
 @SuppressWarnings("serial")
-public class ScorePanel extends JPanel implements Observer {
+public class ScorePanel extends JPanel {
     
-    /** Default score for a block cleared. */
-    private static final int DEFAULT_SCORE = 50;
-    /** Lines required to clear to advance a level. */
-    private static final int LINES_PER_LEVEL = 10;
-    /** The score multiplier for clearing one line on the board. */
-    private static final double ONE_LINE_MULTIPLIER = 1;
-    /** The score multiplier for clearing two lines on the board. */
-    private static final double TWO_LINES_MULTIPLIER = 1.3;
-    /** The score multiplier for clearing three lines on the board. */
-    private static final double THREE_LINES_MULTIPLIER = 1.6;
-    /** The score multiplier for clearing four lines on the board. */
-    private static final double FOUR_LINES_MULTIPLIER = 2.0;
-    /** The number that equals one line cleared. */
-    private static final int ONE = 1;  // DO NOT CHANGE.
-    /** The number that equals two lines cleared. */
-    private static final int TWO = 2;  // DO NOT CHANGE.
-    /** The number that equals three lines cleared. */
-    private static final int THREE = 3;  // DO NOT CHANGE.
-    /** The number that equals four lines cleared. */
-    private static final int FOUR = 4;  // DO NOT CHANGE.
     /** Preferred panel size. */
     private static final Dimension PANEL_SIZE = new Dimension(250, 500);
     /** Default font style. */
@@ -66,28 +44,11 @@ public class ScorePanel extends JPanel implements Observer {
     private static final int BOX_HEIGHT = 300;
     /** Width of the score board box. */
     private static final int BOX_WIDTH = 210;
-    /** Level score multiplier. */
-    private static final int LEVEL_MULTIPLIER = 10;
     /** White space to align score values. */
     private static final String WHITE_SPACE = "   ";
     
-    /** The coordinates of the rows that were cleared. */
-    private List<Integer> myClearedLines;
-    
-    /** The width of the row used to add a multiplier. */
-    private final int myRowWidth;
-    
-    /** Total amount of lines cleared. */
-    private int myTotalLines;
-    
-    /** Current level of difficulty the game is. */
-    private int myLevel;
-    
-    /** The lines left to clear until the level advances. */
-    private int myLinesLeft;
-    
-    /** The score of the current game. */
-    private int myScore;
+    /** The score, level and lines of the current game. */
+    private final ScoreKeeper myScoreKeeper;
     
     /** The display of the score. */
     private JLabel myScoreDisplay;
@@ -110,8 +71,8 @@ public class ScorePanel extends JPanel implements Observer {
      */
     public ScorePanel(final int theRowWidth, final SoundPlayer thePlayer) {
         super();
+        myScoreKeeper = new ScoreKeeper(theRowWidth, 1);
         init();
-        myRowWidth = theRowWidth;
         mySoundPlayer = thePlayer;
         start();
     }
@@ -121,13 +82,9 @@ public class ScorePanel extends JPanel implements Observer {
      * Helper method for the constructor.
      */
     private void init() {
-        myScore = 0;
-        myLevel = 1;
-        myTotalLines = 0;
-        myLinesLeft = LINES_PER_LEVEL;
-        myScoreDisplay = new JLabel(WHITE_SPACE + myScore);
-        myLevelDisplay = new JLabel(WHITE_SPACE + myLevel);
-        myLinesDisplay = new JLabel(WHITE_SPACE + myTotalLines);
+        myScoreDisplay = new JLabel(WHITE_SPACE + myScoreKeeper.getScore());
+        myLevelDisplay = new JLabel(WHITE_SPACE + myScoreKeeper.getLevel());
+        myLinesDisplay = new JLabel(WHITE_SPACE + myScoreKeeper.getTotalLines());
     }
     
     
@@ -137,7 +94,7 @@ public class ScorePanel extends JPanel implements Observer {
      * @return The current level of the game.
      */
     public int getLevel() {
-        return myLevel;
+        return myScoreKeeper.getLevel();
     }
     
     
@@ -147,7 +104,7 @@ public class ScorePanel extends JPanel implements Observer {
      * @param theLevel The level.
      */
     public void setLevel(final int theLevel) {
-        myLevel = theLevel;
+        myScoreKeeper.setLevel(theLevel);
     }
     
     
@@ -190,56 +147,13 @@ public class ScorePanel extends JPanel implements Observer {
     }
     
     
-    /**
-     * Calculates the score whenever lines are cleared in the game.
-     */
-    private void updateScore() {
-        int score = 0;
-        switch (myClearedLines.size()) {
-            case ONE:
-                score += ONE * (DEFAULT_SCORE + LEVEL_MULTIPLIER * myLevel)
-                                            * ONE_LINE_MULTIPLIER * myRowWidth;
-                myTotalLines += ONE;
-                break;
-            case TWO:
-                score += TWO * (DEFAULT_SCORE + LEVEL_MULTIPLIER * myLevel)
-                                            * TWO_LINES_MULTIPLIER * myRowWidth;
-                myTotalLines += TWO;
-                break;
-            case THREE:
-                score += THREE * (DEFAULT_SCORE + LEVEL_MULTIPLIER * myLevel)
-                                            * THREE_LINES_MULTIPLIER * myRowWidth;
-                myTotalLines += THREE;
-                break;
-            case FOUR:
-                score += FOUR * (DEFAULT_SCORE + LEVEL_MULTIPLIER * myLevel)
-                                            * FOUR_LINES_MULTIPLIER * myRowWidth;
-                myTotalLines += FOUR;
-                break;
-            default:
-                break;
-        }
-        myLinesLeft -= myClearedLines.size();
-        if (myLinesLeft <= 0) {
-            myLevel += 1;
-            myLinesLeft += LINES_PER_LEVEL;
-        }
-        myScore += score;
-        SoundEffects.CLEAR.play(mySoundPlayer);
-        repaint();
-    }
-    
-    
     /**
      * Resets the score, level and lines cleared.
      * 
      * @param theLevel The new level of the game.
      */
     public void newGame(final int theLevel) {
-        myScore = 0;
-        myLevel = theLevel;
-        myTotalLines = 0;
-        myLinesLeft = LINES_PER_LEVEL;
+        myScoreKeeper.newGame(theLevel);
         repaint();
     }
     
@@ -252,19 +166,22 @@ public class ScorePanel extends JPanel implements Observer {
         graphic.setPaint(Color.ORANGE);
         
         graphic.setPaint(Color.YELLOW);
-        myScoreDisplay.setText(WHITE_SPACE + myScore);
-        myLevelDisplay.setText(WHITE_SPACE + myLevel);
-        myLinesDisplay.setText(WHITE_SPACE + myTotalLines);
+        myScoreDisplay.setText(WHITE_SPACE + myScoreKeeper.getScore());
+        myLevelDisplay.setText(WHITE_SPACE + myScoreKeeper.getLevel());
+        myLinesDisplay.setText(WHITE_SPACE + myScoreKeeper.getTotalLines());
         
     }
 
 
-    @Override
-    public void update(final Observable theClass, final Object theData) {
-        if (theData instanceof CompletedLines) {
-            myClearedLines = ((CompletedLines) theData).getCompletedLines();
-            updateScore();
-        }
+    /**
+     * Updates the score for lines cleared in the game.
+     * 
+     * @param theLines The lines that were cleared.
+     */
+    public void linesCleared(final CompletedLines theLines) {
+        myScoreKeeper.onLinesCleared(theLines);
+        SoundEffects.CLEAR.play(mySoundPlayer);
+        repaint();
     }
     
     
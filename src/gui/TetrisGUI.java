@@ -11,21 +11,39 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.util.Observable;
-import java.util.Observer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.List;
 
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
 import model.Board;
-import model.Board.GameStatus;
+import model.Board.CompletedLines;
+import model.BoardAdapter;
+import model.GameEngine;
+import model.RandomizerType;
 import model.TetrisPiece;
 
+import replay.Replay;
+import replay.ReplayPlayer;
+import replay.ReplayRecorder;
+
 import sound.MusicList;
 import sound.MusicPlayer;
 import sound.SoundEffects;
@@ -39,10 +57,12 @@ import sound.SoundPlayer;
  * @version 01 March 2015
  */
 @SuppressWarnings("serial")
-public class TetrisGUI extends JFrame implements Observer, PropertyChangeListener {
+public class TetrisGUI extends JFrame implements PropertyChangeListener {
     
-    /** Amount of time the timer is initially set to. */
+    /** Amount of time between gravity steps initially. */
     private static final int MILLISECONDS = 1000;
+    /** Amount of time between engine ticks. */
+    private static final int TICK_MILLISECONDS = MILLISECONDS / GameEngine.TICKS_PER_SECOND;
     /** Minimum size of the window frame. */
     private static final Dimension MIN_SIZE = new Dimension(526, 583);
     /** Used to calculate timer speed based on game level. */
@@ -51,6 +71,8 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
     private static final int SCALE = 250;
     /** The maximum level before the speed of the game stops changing. */
     private static final int SPEED_LEVEL_CAP = 22;
+    /** The system property naming a directory to stream every game to. */
+    private static final String REPLAY_DIRECTORY = "tetris.replays";
     /** File path of the basic icon. */
     private static final String ICON = "/images/icon.jpg";
     /** The level of default volume for the sfx player */
@@ -59,12 +81,30 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
     /** The Tetris game. */
     private final Board myTetris;
     
+    /** The engine that runs the Tetris game clock. */
+    private final GameEngine myEngine;
+    
     /** The panel that renders the Tetris game. */
     private final GamePanel myGamePanel;
     
-    /** The timer that runs the Tetris game. */
+    /** The AI player that can play the game. */
+    private final AutoPlayer myAutoPlayer;
+    
+    /** The timer that ticks the Tetris game engine. */
     private final Timer myTimer;
     
+    /** Records every game for saving as a replay. */
+    private final ReplayRecorder myRecorder;
+    
+    /** The timer that plays a replay at the speed it was recorded. */
+    private final Timer myReplayTimer;
+    
+    /** The replay being shown, or null. */
+    private ReplayPlayer myReplayPlayer;
+    
+    /** The engine tick the replay being shown has reached. */
+    private long myReplayTick;
+    
     /** The next piece in the Tetris game. */
     private TetrisPiece myNextPiece;
     
@@ -103,10 +143,20 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
     public TetrisGUI() {
         super();
         myTetris = new Board();
+        myEngine = new GameEngine(myTetris);
+        myEngine.setGravity(GameEngine.millisToTicks(MILLISECONDS));
+        myRecorder = new ReplayRecorder(myTetris, RandomizerType.UNIFORM);
+        myEngine.addCommandListener(myRecorder);
+        final String replays = System.getProperty(REPLAY_DIRECTORY);
+        if (replays != null) {
+            myRecorder.setDirectory(Paths.get(replays));
+        }
         init();
         myScorePanel = new ScorePanel(myTetris.getWidth(), mySoundPlayer);
         myTimer = createTimer();
-        myGamePanel = new GamePanel(myTetris, myTimer, mySoundPlayer);
+        myReplayTimer = createReplayTimer();
+        myGamePanel = new GamePanel(myEngine, myTimer, mySoundPlayer);
+        myAutoPlayer = new AutoPlayer(myTetris, myGamePanel);
         myMenuBar = new MenuBar(myGamePanel, mySoundPlayer, myMusicPlayer);
     }
     
@@ -135,18 +185,64 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
      * @return The timer for Tetris.
      */
     private Timer createTimer() {
-        final Timer time = new Timer(MILLISECONDS, new ActionListener() {
+        final Timer time = new Timer(TICK_MILLISECONDS, new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent theEvent) {
+                if (myEngine.tick()) {
+                    updateTimer();
+                    playMusic();
+                }
+            }
+        });
+        return time;
+    }
+    
+    
+    /**
+     * Creates the timer that plays a replay, one engine tick at a time.
+     * 
+     * @return The replay timer.
+     */
+    private Timer createReplayTimer() {
+        final Timer time = new Timer(TICK_MILLISECONDS, new ActionListener() {
             @Override
             public void actionPerformed(final ActionEvent theEvent) {
-                myTetris.step();
-                updateTimer();
-                playMusic();
+                if (!myReplayPlayer.advanceTo(myReplayTick)) {
+                    myReplayTimer.stop();
+                    if (!myGameIsOver) {
+                        endGame();
+                    }
+                }
+                myReplayTick++;
             }
         });
         return time;
     }
     
 
+    /**
+     * Creates the listener that closes the streamed replay files before
+     * the frame exits, as their writer threads would die with it.
+     * 
+     * @return The close listener.
+     */
+    private WindowAdapter createCloseListener() {
+        return new WindowAdapter() {
+            @Override
+            public void windowClosing(final WindowEvent theEvent) {
+                myTimer.stop();
+                myReplayTimer.stop();
+                try {
+                    myRecorder.finish();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reportReplayFailures();
+            }
+        };
+    }
+    
+
     /**
      * Builds the main frame of the GUI.
      */
@@ -171,10 +267,10 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
         setJMenuBar(myMenuBar);
         myMenuBar.addPropertyChangeListener(this);
         
-        myTetris.addObserver(this);
-        myTetris.addObserver(myScorePanel);
-        myTetris.addObserver(myGamePanel);
-        myTetris.addObserver(myNextPiecePanel);
+        myTetris.addBoardListener(createBoardListener());
+        myTetris.addBoardListener(myGamePanel);
+        myTetris.addBoardListener(myAutoPlayer);
+        myRecorder.startGame(myDifficulty);
         myTetris.clear(); // Starts a new game.
         
         
@@ -184,20 +280,22 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
         this.setMinimumSize(MIN_SIZE);
         this.setTitle("TCSS 305 Tetris");
         this.setDefaultCloseOperation(EXIT_ON_CLOSE);
+        addWindowListener(createCloseListener());
         this.setVisible(true);
         pack();
         this.setLocationRelativeTo(null);
     }
     
     /**
-     * Updates the delay interval of the game timer based on the current level.
+     * Updates the gravity of the game engine based on the current level.
      * Timer stops speeding up after level 22 to avoid less than 50ms speed.
      */
     private void updateTimer() {
         if (myLevel != myScorePanel.getLevel() && myLevel <= SPEED_LEVEL_CAP) {
             myLevel = myScorePanel.getLevel();
             // Math algorithm used to set the speed dependent on the level.
-            myTimer.setDelay((int) (INITIAL - (SCALE * Math.sqrt(myLevel))));
+            myEngine.setGravity(GameEngine.millisToTicks(
+                (long) (INITIAL - (SCALE * Math.sqrt(myLevel)))));
         }
     }
     
@@ -226,6 +324,9 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
         myGameIsOver = true;
         myGamePanel.gameOver();
         myTimer.stop();
+        myReplayTimer.stop();
+        myRecorder.endGame();
+        reportReplayFailures();
         myMenuBar.gameOver();
     }
     
@@ -237,6 +338,10 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
         myMusicPlayer.stopPlay();
         playMusic();
         myGameIsOver = false;
+        myReplayTimer.stop();
+        myEngine.reset();
+        myRecorder.startGame(myDifficulty);
+        reportReplayFailures();
         myGamePanel.newGame();
         myScorePanel.newGame(myDifficulty);
         updateTimer();
@@ -245,6 +350,70 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
     }
     
     
+    /**
+     * Shows a saved replay in place of the current game.
+     * 
+     * @param theFile The replay file.
+     */
+    private void openReplay(final File theFile) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(theFile))) {
+            final Replay replay = Replay.read(in);
+            final ReplayPlayer player = new ReplayPlayer(replay, myTetris);
+            myTimer.stop();
+            myReplayTimer.stop();
+            myRecorder.endGame();
+            reportReplayFailures();
+            myMusicPlayer.stopPlay();
+            myGameIsOver = false;
+            playMusic();
+            myGamePanel.watchReplay();
+            myScorePanel.newGame(replay.getLevel());
+            myReplayPlayer = player;
+            myReplayPlayer.start();
+            myReplayTick = 0;
+            myReplayTimer.start();
+            myNextPiecePanel.setNextPiece(myNextPiece);
+        } catch (final IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Could not open " + theFile.getName()
+                                          + ": " + e.getMessage(), "Open Replay",
+                                          JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    
+    /**
+     * Saves the replay of the game played last.
+     * 
+     * @param theFile The replay file.
+     */
+    private void saveReplay(final File theFile) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(theFile))) {
+            myRecorder.write(out);
+        } catch (final IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not save " + theFile.getName()
+                                          + ": " + e.getMessage(), "Save Replay",
+                                          JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    
+    /**
+     * Shows the failures of the games streamed to the replay directory
+     * whose files fell short, if any.
+     */
+    private void reportReplayFailures() {
+        final List<IOException> failures = myRecorder.takeFailures();
+        if (!failures.isEmpty()) {
+            final StringBuilder message = new StringBuilder("Could not record a replay:");
+            for (final IOException failure : failures) {
+                message.append('\n').append(failure);
+            }
+            JOptionPane.showMessageDialog(this, message.toString(), "Record Replay",
+                                          JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    
     /**
      * Pauses the current game.
      */
@@ -277,18 +446,29 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
 
 
     /**
-     * The update method for the Observer interface.
+     * Creates the listener that passes board changes on to the
+     * rest of the GUI.
      * 
-     * @param theObj The observable that called us.
-     * @param theArg The argument it passed us.
+     * @return The board listener.
      */
-    public void update(final Observable theObj, final Object theArg) {
-        if (theArg instanceof TetrisPiece) {
-            myNextPiece = (TetrisPiece) theArg;
-        }
-        if (theArg instanceof GameStatus && ((GameStatus) theArg).isGameOver()) {
-            endGame();
-        }
+    private BoardAdapter createBoardListener() {
+        return new BoardAdapter() {
+            @Override
+            public void onNextPiece(final TetrisPiece thePiece) {
+                myNextPiece = thePiece;
+                myNextPiecePanel.setNextPiece(thePiece);
+            }
+            
+            @Override
+            public void onLinesCleared(final CompletedLines theLines) {
+                myScorePanel.linesCleared(theLines);
+            }
+            
+            @Override
+            public void onGameOver() {
+                endGame();
+            }
+        };
     }
 
 
@@ -315,6 +495,18 @@ public class TetrisGUI extends JFrame implements Observer, PropertyChangeListene
                 updateDifficulty((int) theEvent.getNewValue());
                 break;
                 
+            case "AutoPlayUpdate":
+                myAutoPlayer.setEnabled((boolean) theEvent.getNewValue());
+                break;
+                
+            case "OpenReplayUpdate":
+                openReplay((File) theEvent.getNewValue());
+                break;
+                
+            case "SaveReplayUpdate":
+                saveReplay((File) theEvent.getNewValue());
+                break;
+                
             default:
                 break;
         }
@@ -6,16 +6,29 @@
 package gui;
 
 
+import java.awt.Dimension;
 import java.awt.EventQueue;
 
+import javax.swing.JFrame;
+
+import model.Board;
+import model.GameEngine;
+
 /**
- * Driver class for Tetris.
+ * Driver class for Tetris.  Run with -active to play in the actively
+ * rendered ActiveGameCanvas instead of the full TetrisGUI.
  * 
  * @author Justin Arnett (jarnett@uw.edu)
  * @version 01 March 2015
  */
 public final class TetrisMain {
     
+    /** The option that launches the actively rendered game. */
+    private static final String ACTIVE_OPTION = "-active";
+    
+    /** The size of the actively rendered game. */
+    private static final Dimension ACTIVE_SIZE = new Dimension(400, 800);
+    
     
     /**
      * Private constructor, to prevent instantiation of this class.
@@ -26,18 +39,40 @@ public final class TetrisMain {
     
 
     /**
-     * Launches TetrisGUI.
+     * Launches TetrisGUI, or with the option -active the actively rendered
+     * game alone.
      * 
      * @param theArgs Array of strings.
      */
     public static void main(final String[] theArgs) {
+        final boolean active = theArgs.length > 0 && ACTIVE_OPTION.equals(theArgs[0]);
         EventQueue.invokeLater(new Runnable() {
             @Override
             public void run() {
-                final TetrisGUI gui = new TetrisGUI();
-                gui.start();    
+                if (active) {
+                    startActive();
+                } else {
+                    final TetrisGUI gui = new TetrisGUI();
+                    gui.start();
+                }
             }
         });
     }
+    
+    
+    /**
+     * Shows a game drawn by an ActiveGameCanvas in a frame of its own.
+     */
+    private static void startActive() {
+        final JFrame frame = new JFrame("Tetris");
+        final ActiveGameCanvas canvas = new ActiveGameCanvas(new GameEngine(new Board()));
+        canvas.setPreferredSize(ACTIVE_SIZE);
+        frame.add(canvas);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.pack();
+        frame.setVisible(true);
+        canvas.start();
+        canvas.requestFocusInWindow();
+    }
 
 }
@@ -0,0 +1,111 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.concurrent.Executor;
+
+import model.Board.BoardData;
+import model.Board.CompletedLines;
+import model.Board.PieceLocked;
+import model.Board.PieceMoved;
+
+/**
+ * A BoardListener that hands every event to another listener on a
+ * separate thread, so the thread driving the Board never waits for
+ * listeners.
+ * 
+ * Events are delivered in order as long as the executor runs tasks in the
+ * order they are submitted, for example a single thread executor or
+ * java.awt.EventQueue::invokeLater.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class AsyncBoardListener implements BoardListener {
+
+    /**
+     * The listener that receives the events.
+     */
+    private final BoardListener myListener;
+
+    /**
+     * The executor that delivers the events.
+     */
+    private final Executor myExecutor;
+
+    /**
+     * Constructs an asynchronous listener.
+     * 
+     * @param theListener The listener that receives the events.
+     * @param theExecutor The executor that delivers the events in order.
+     */
+    public AsyncBoardListener(final BoardListener theListener, final Executor theExecutor) {
+        myListener = theListener;
+        myExecutor = theExecutor;
+    }
+
+    @Override
+    public void onBoardReset(final BoardData theData) {
+        myExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                myListener.onBoardReset(theData);
+            }
+        });
+    }
+
+    @Override
+    public void onPieceMoved(final PieceMoved theMove) {
+        myExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                myListener.onPieceMoved(theMove);
+            }
+        });
+    }
+
+    @Override
+    public void onPieceLocked(final PieceLocked theLock) {
+        myExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                myListener.onPieceLocked(theLock);
+            }
+        });
+    }
+
+    @Override
+    public void onLinesCleared(final CompletedLines theLines) {
+        myExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                myListener.onLinesCleared(theLines);
+            }
+        });
+    }
+
+    @Override
+    public void onNextPiece(final TetrisPiece thePiece) {
+        myExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                myListener.onNextPiece(thePiece);
+            }
+        });
+    }
+
+    @Override
+    public void onGameOver() {
+        myExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                myListener.onGameOver();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deals pieces from shuffled bags holding one of each piece, so every piece
+ * appears once in each run of seven.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class BagRandomizer implements PieceRandomizer {
+
+    /**
+     * The random source.
+     */
+    private final SplittableRandom myRandom;
+
+    /**
+     * The current bag.
+     */
+    private final TetrisPiece[] myBag;
+
+    /**
+     * The index of the next piece in the bag.
+     */
+    private int myIndex;
+
+    /**
+     * Constructs a randomizer with a fixed seed.
+     * 
+     * @param theSeed The seed of the piece sequence.
+     */
+    public BagRandomizer(final long theSeed) {
+        this(new SplittableRandom(theSeed));
+    }
+
+    /**
+     * Constructs a randomizer drawing from a random source.
+     * The source must not be shared with another thread.
+     * 
+     * @param theRandom The random source.
+     */
+    public BagRandomizer(final SplittableRandom theRandom) {
+        myRandom = theRandom;
+        myBag = TetrisPiece.values();
+        myIndex = myBag.length;
+    }
+
+    @Override
+    public TetrisPiece next() {
+        if (myIndex == myBag.length) {
+            shuffle();
+            myIndex = 0;
+        }
+        return myBag[myIndex++];
+    }
+
+    /**
+     * Refills the bag in a new random order.
+     */
+    private void shuffle() {
+        for (int i = myBag.length - 1; i > 0; i--) {
+            final int j = myRandom.nextInt(i + 1);
+            final TetrisPiece swap = myBag[i];
+            myBag[i] = myBag[j];
+            myBag[j] = swap;
+        }
+    }
+
+}
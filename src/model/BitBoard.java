@@ -0,0 +1,521 @@
+/*
+ * TCSS 305
+ *
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Stores the frozen blocks of a Tetris board as bitboard rows.
+ *
+ * Each row is an int occupancy mask where bit x is set when column x holds a
+ * frozen block. A separate compact plane records which TetrisPiece froze each
+ * block so the board can still be rendered in color.
+ *
+ * The piece plane is stored in row slots reached through a slot table, and
+ * every row keeps a count of its filled cells. Complete rows are known as
+ * soon as their last cell is set, and removing them only compacts the row
+ * masks, counts and slot numbers above the lowest complete row; the piece
+ * data of the surviving rows never moves.
+ *
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class BitBoard {
+
+    /**
+     * The widest board a single row mask can represent.
+     */
+    public static final int MAX_WIDTH = Integer.SIZE;
+
+    /**
+     * Value of the piece plane for an empty cell.
+     */
+    private static final byte EMPTY = -1;
+
+    /**
+     * The TetrisPiece types indexed by ordinal.
+     */
+    private static final TetrisPiece[] PIECES = TetrisPiece.values();
+
+    /**
+     * Width of the board.
+     */
+    private final int myWidth;
+
+    /**
+     * Height of the board.
+     */
+    private final int myHeight;
+
+    /**
+     * Row mask with every column of the board filled.
+     */
+    private final int myFullRow;
+
+    /**
+     * Occupancy mask of each row, bottom row first.
+     */
+    private final int[] myRows;
+
+    /**
+     * Number of filled cells in each row, bottom row first.
+     */
+    private final int[] myRowFill;
+
+    /**
+     * The slot of the piece plane holding each row, bottom row first.
+     */
+    private final int[] mySlots;
+
+    /**
+     * Slots released by removed rows, reused while compacting.
+     */
+    private final int[] myFreeSlots;
+
+    /**
+     * Ordinal of the TetrisPiece frozen in each cell, stored slot by slot.
+     */
+    private final byte[] myPieces;
+
+    /**
+     * Height of the surface of each column: one more than the row of the
+     * highest frozen block, or zero for an empty column.
+     */
+    private final int[] myColumnHeights;
+
+    /**
+     * Number of complete rows waiting to be removed.
+     */
+    private int myCompleteRows;
+
+    /**
+     * The lowest complete row, or the height of the board if there is none.
+     */
+    private int myLowestComplete;
+
+    /**
+     * One more than the highest row holding a frozen block.
+     */
+    private int myStackHeight;
+
+    /**
+     * Constructs an empty bitboard.
+     *
+     * @param theWidth Width of the board.
+     * @param theHeight Height of the board.
+     * @throws IllegalArgumentException if the width does not fit in a row mask
+     *         or the height is not positive.
+     */
+    public BitBoard(final int theWidth, final int theHeight) {
+        if (theWidth < 1 || theWidth > MAX_WIDTH || theHeight < 1) {
+            throw new IllegalArgumentException("Unsupported board size "
+                                               + theWidth + "x" + theHeight);
+        }
+        myWidth = theWidth;
+        myHeight = theHeight;
+        if (theWidth == MAX_WIDTH) {
+            myFullRow = -1;
+        } else {
+            myFullRow = (1 << theWidth) - 1;
+        }
+        myRows = new int[theHeight];
+        myRowFill = new int[theHeight];
+        mySlots = new int[theHeight];
+        myFreeSlots = new int[theHeight];
+        myPieces = new byte[theWidth * theHeight];
+        myColumnHeights = new int[theWidth];
+        clear();
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param theOther The bitboard to copy.
+     */
+    private BitBoard(final BitBoard theOther) {
+        myWidth = theOther.myWidth;
+        myHeight = theOther.myHeight;
+        myFullRow = theOther.myFullRow;
+        myRows = theOther.myRows.clone();
+        myRowFill = theOther.myRowFill.clone();
+        mySlots = theOther.mySlots.clone();
+        myFreeSlots = new int[myHeight];
+        myPieces = theOther.myPieces.clone();
+        myColumnHeights = theOther.myColumnHeights.clone();
+        myCompleteRows = theOther.myCompleteRows;
+        myLowestComplete = theOther.myLowestComplete;
+        myStackHeight = theOther.myStackHeight;
+    }
+
+    // public queries
+
+    /**
+     * Get the width of the board.
+     *
+     * @return Width of the board.
+     */
+    public int getWidth() {
+        return myWidth;
+    }
+
+    /**
+     * Get the height of the board.
+     *
+     * @return Height of the board.
+     */
+    public int getHeight() {
+        return myHeight;
+    }
+
+    /**
+     * Returns the occupancy mask of a row.
+     * Rows above the top of the board are always empty.
+     *
+     * @param theY The row to query.
+     * @return The occupancy mask of the row.
+     */
+    public int getRow(final int theY) {
+        int row = 0;
+        if (theY < myHeight) {
+            row = myRows[theY];
+        }
+        return row;
+    }
+
+    /**
+     * Returns the mask of a row with every column filled.
+     *
+     * @return The full row mask.
+     */
+    public int getFullRow() {
+        return myFullRow;
+    }
+
+    /**
+     * Returns the surface height of a column.
+     *
+     * @param theX The column to query.
+     * @return One more than the row of the highest frozen block in the
+     *         column, or zero if the column is empty.
+     */
+    public int getColumnHeight(final int theX) {
+        return myColumnHeights[theX];
+    }
+
+    /**
+     * Returns the number of filled cells in a row.
+     * Rows above the top of the board are always empty.
+     *
+     * @param theY The row to query.
+     * @return The number of frozen blocks in the row.
+     */
+    public int getRowFill(final int theY) {
+        int fill = 0;
+        if (theY < myHeight) {
+            fill = myRowFill[theY];
+        }
+        return fill;
+    }
+
+    /**
+     * Returns the height of the stack: one more than the highest row
+     * holding a frozen block, or zero for an empty board.
+     *
+     * @return The stack height.
+     */
+    public int getStackHeight() {
+        return myStackHeight;
+    }
+
+    /**
+     * Tests if any row is complete and waiting to be removed.
+     *
+     * @return True if clearCompleteRows would remove at least one row.
+     */
+    public boolean hasCompleteRows() {
+        return myCompleteRows > 0;
+    }
+
+    /**
+     * Tests if a cell is unavailable to a moving piece.
+     * Cells beyond the walls or below the floor are blocked; cells above the
+     * top of the board are open.
+     *
+     * @param theX The column of the cell.
+     * @param theY The row of the cell.
+     * @return True if the cell is blocked.
+     */
+    public boolean isBlocked(final int theX, final int theY) {
+        boolean result = true;
+        if (theX >= 0 && theX < myWidth && theY >= 0) {
+            result = (getRow(theY) & (1 << theX)) != 0;
+        }
+        return result;
+    }
+
+    /**
+     * Tests if a piece fits on the board without leaving the walls or floor
+     * or overlapping frozen blocks. Parts of the piece above the top of the
+     * board always fit.
+     *
+     * @param thePiece The TetrisPiece to test.
+     * @param theRotation The rotation of the piece.
+     * @param theX The board column of the piece position.
+     * @param theY The board row of the piece position.
+     * @return True if the piece fits.
+     */
+    public boolean fits(final TetrisPiece thePiece, final Rotation theRotation,
+                        final int theX, final int theY) {
+        final int minY = PieceTable.getMinY(thePiece, theRotation);
+        final int maxY = PieceTable.getMaxY(thePiece, theRotation);
+        boolean result = theX + PieceTable.getMinX(thePiece, theRotation) >= 0
+                         && theX + PieceTable.getMaxX(thePiece, theRotation) < myWidth
+                         && theY + minY >= 0;
+        for (int row = minY; result && row <= maxY && theY + row < myHeight; row++) {
+            final int mask = PieceTable.getRowMask(thePiece, theRotation, row);
+            result = (shift(mask, theX) & myRows[theY + row]) == 0;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the row a piece would land on if it fell straight down.
+     *
+     * When the piece is above the surface of every column it covers, the
+     * landing row comes straight from the column heights in O(piece width);
+     * a piece tucked under an overhang falls back to testing each row.
+     *
+     * @param thePiece The TetrisPiece that falls.
+     * @param theRotation The rotation of the piece.
+     * @param theX The board column of the piece position.
+     * @param theY The board row of the piece position, which must fit.
+     * @return The lowest row the piece can fall to.
+     */
+    public int dropRow(final TetrisPiece thePiece, final Rotation theRotation,
+                       final int theX, final int theY) {
+        int result = -PieceTable.getMinY(thePiece, theRotation);
+        boolean aboveSurface = true;
+        for (int c = PieceTable.getMinX(thePiece, theRotation);
+                c <= PieceTable.getMaxX(thePiece, theRotation); c++) {
+            final int bottom = PieceTable.getColumnBottom(thePiece, theRotation, c);
+            final int height = myColumnHeights[theX + c];
+            if (bottom != Integer.MAX_VALUE) {
+                aboveSurface &= theY + bottom >= height;
+                result = Math.max(result, height - bottom);
+            }
+        }
+        if (!aboveSurface) {
+            result = theY;
+            while (fits(thePiece, theRotation, theX, result - 1)) {
+                result--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the TetrisPiece that froze the block in a cell.
+     *
+     * @param theX The column of the cell.
+     * @param theY The row of the cell.
+     * @return The TetrisPiece of the block or null if the cell is empty.
+     */
+    public TetrisPiece getPiece(final int theX, final int theY) {
+        TetrisPiece result = null;
+        if (isOnBoard(theX, theY)) {
+            final byte piece = myPieces[mySlots[theY] * myWidth + theX];
+            if (piece != EMPTY) {
+                result = PIECES[piece];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of this bitboard.
+     *
+     * @return A new independent copy of the bitboard.
+     */
+    public BitBoard copy() {
+        return new BitBoard(this);
+    }
+
+    // public commands
+
+    /**
+     * Makes this bitboard an exact copy of another of the same size,
+     * reusing its arrays.
+     *
+     * @param theOther The bitboard to copy.
+     * @throws IllegalArgumentException if the sizes differ.
+     */
+    public void copyFrom(final BitBoard theOther) {
+        if (theOther.myWidth != myWidth || theOther.myHeight != myHeight) {
+            throw new IllegalArgumentException("Cannot copy a " + theOther.myWidth + "x"
+                                               + theOther.myHeight + " board");
+        }
+        System.arraycopy(theOther.myRows, 0, myRows, 0, myHeight);
+        System.arraycopy(theOther.myRowFill, 0, myRowFill, 0, myHeight);
+        System.arraycopy(theOther.mySlots, 0, mySlots, 0, myHeight);
+        System.arraycopy(theOther.myPieces, 0, myPieces, 0, myPieces.length);
+        System.arraycopy(theOther.myColumnHeights, 0, myColumnHeights, 0, myWidth);
+        myCompleteRows = theOther.myCompleteRows;
+        myLowestComplete = theOther.myLowestComplete;
+        myStackHeight = theOther.myStackHeight;
+    }
+
+    /**
+     * Removes every frozen block from the board.
+     */
+    public void clear() {
+        Arrays.fill(myRows, 0);
+        Arrays.fill(myRowFill, 0);
+        for (int y = 0; y < myHeight; y++) {
+            mySlots[y] = y;
+        }
+        Arrays.fill(myPieces, EMPTY);
+        Arrays.fill(myColumnHeights, 0);
+        myCompleteRows = 0;
+        myLowestComplete = myHeight;
+        myStackHeight = 0;
+    }
+
+    /**
+     * Freezes a block of a TetrisPiece into a cell.
+     *
+     * @param theX The column of the cell.
+     * @param theY The row of the cell.
+     * @param thePiece The TetrisPiece the block belongs to.
+     * @return True if the cell is on the board; false if the block was discarded.
+     */
+    public boolean set(final int theX, final int theY, final TetrisPiece thePiece) {
+        final boolean result = isOnBoard(theX, theY);
+        if (result) {
+            final int bit = 1 << theX;
+            if ((myRows[theY] & bit) == 0) {
+                myRows[theY] |= bit;
+                myRowFill[theY]++;
+                if (myRowFill[theY] == myWidth) {
+                    myCompleteRows++;
+                    myLowestComplete = Math.min(myLowestComplete, theY);
+                }
+            }
+            myPieces[mySlots[theY] * myWidth + theX] = (byte) thePiece.ordinal();
+            myColumnHeights[theX] = Math.max(myColumnHeights[theX], theY + 1);
+            myStackHeight = Math.max(myStackHeight, theY + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Freezes every block of a piece into the board.
+     *
+     * @param thePiece The TetrisPiece to freeze.
+     * @param theRotation The rotation of the piece.
+     * @param theX The board column of the piece position.
+     * @param theY The board row of the piece position.
+     * @return True if every block landed on the board; false if any block
+     *         was above the top of the board and discarded.
+     */
+    public boolean place(final TetrisPiece thePiece, final Rotation theRotation,
+                         final int theX, final int theY) {
+        boolean result = true;
+        for (int i = 0; i < PieceTable.BLOCKS; i++) {
+            result &= set(theX + PieceTable.getCellX(thePiece, theRotation, i),
+                          theY + PieceTable.getCellY(thePiece, theRotation, i), thePiece);
+        }
+        return result;
+    }
+
+    /**
+     * Removes every complete row and shifts the rows above it down.
+     * Only the rows from the lowest complete row to the top of the stack
+     * are visited, and only their masks, counts and slot numbers move.
+     *
+     * @param theCleared Receives the indexes of the removed rows in ascending
+     *        order; must hold at least as many entries as the board is tall.
+     * @return The number of rows removed.
+     */
+    public int clearCompleteRows(final int[] theCleared) {
+        final int count = myCompleteRows;
+        if (count > 0) {
+            int found = 0;
+            int write = myLowestComplete;
+            for (int y = myLowestComplete; y < myStackHeight; y++) {
+                if (myRowFill[y] == myWidth) {
+                    theCleared[found] = y;
+                    myFreeSlots[found] = mySlots[y];
+                    found++;
+                } else {
+                    myRows[write] = myRows[y];
+                    myRowFill[write] = myRowFill[y];
+                    mySlots[write] = mySlots[y];
+                    write++;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                final int slot = myFreeSlots[i];
+                Arrays.fill(myPieces, slot * myWidth, (slot + 1) * myWidth, EMPTY);
+                myRows[write + i] = 0;
+                myRowFill[write + i] = 0;
+                mySlots[write + i] = slot;
+            }
+            myStackHeight -= count;
+            myCompleteRows = 0;
+            myLowestComplete = myHeight;
+            lowerColumnHeights(count);
+        }
+        return count;
+    }
+
+    // private helper methods
+
+    /**
+     * Determines if a cell is on the board.
+     *
+     * @param theX The column of the cell.
+     * @param theY The row of the cell.
+     * @return True if the cell is on the board otherwise false.
+     */
+    private boolean isOnBoard(final int theX, final int theY) {
+        return theX >= 0 && theX < myWidth && theY >= 0 && theY < myHeight;
+    }
+
+    /**
+     * Updates the column heights after rows were removed.
+     * Every removed row was full, so each column loses at least that many
+     * rows and only needs to search down for blocks below the old surface.
+     *
+     * @param theRemoved The number of rows removed.
+     */
+    private void lowerColumnHeights(final int theRemoved) {
+        for (int x = 0; x < myWidth; x++) {
+            int height = myColumnHeights[x] - theRemoved;
+            while (height > 0 && (myRows[height - 1] & (1 << x)) == 0) {
+                height--;
+            }
+            myColumnHeights[x] = height;
+        }
+    }
+
+    /**
+     * Shifts a piece row mask to a board column.
+     *
+     * @param theMask The local row mask.
+     * @param theX The board column of the piece position, which may be
+     *        negative when the leftmost local columns of the piece are empty.
+     * @return The row mask in board columns.
+     */
+    private static int shift(final int theMask, final int theX) {
+        int result = theMask >>> -theX;
+        if (theX >= 0) {
+            result = theMask << theX;
+        }
+        return result;
+    }
+
+}
@@ -9,9 +9,9 @@ package model;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Observable;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a Tetris board.
@@ -20,7 +20,7 @@ import java.util.Observable;
  * @edited Justin Arnett
  * @version Winter 2015
  */
-public class Board extends Observable {
+public class Board {
 
     // Class constants
     
@@ -50,7 +50,12 @@ public class Board extends Observable {
     /**
      * The frozen blocks on the board.
      */
-    private final List<Color[]> myFrozenBlocks;
+    private final BitBoard myFrozenBlocks;
+
+    /**
+     * Buffer receiving the indexes of rows removed by a line clear.
+     */
+    private final int[] myClearedRows;
     
     /**
      * Current board status.
@@ -58,6 +63,17 @@ public class Board extends Observable {
      */
     private final GameStatus myGameStatus;
 
+    /**
+     * The listeners notified of board changes.
+     * Copy on write so events are dispatched without locking.
+     */
+    private final List<BoardListener> myListeners;
+
+    /**
+     * Chooses the pieces dealt when no fixed sequence is set.
+     */
+    private PieceRandomizer myRandomizer;
+
     /**
      * Contains a non random sequence of TetrisPieces to loop through.
      */
@@ -74,14 +90,66 @@ public class Board extends Observable {
     private TetrisPiece myNextPiece;
     
     /**
-     * Piece that is currently movable.
+     * Type of the piece that is currently movable, or null if there is none.
      */
-    private MovableTetrisPiece myCurrentPiece;
-    
+    private TetrisPiece myCurrentPiece;
+
     /**
-     * Ghost piece to show where Current Piece will land.
+     * Rotation of the piece that is currently movable.
      */
-    private MovableTetrisPiece myGhostPiece;
+    private Rotation myCurrentRotation;
+
+    /**
+     * Board column of the piece that is currently movable.
+     */
+    private int myCurrentX;
+
+    /**
+     * Board row of the piece that is currently movable.
+     */
+    private int myCurrentY;
+
+    /**
+     * Whether the current piece has a ghost piece that shows where it will land.
+     * The ghost shares the type, rotation and column of the current piece.
+     */
+    private boolean myHasGhost;
+
+    /**
+     * Board row of the ghost piece.
+     */
+    private int myGhostY;
+
+    /**
+     * Type of the current piece as last published to listeners, or null if
+     * listeners are not showing a current piece.
+     */
+    private TetrisPiece myShownPiece;
+
+    /**
+     * Rotation of the current piece as last published to listeners.
+     */
+    private Rotation myShownRotation;
+
+    /**
+     * Board column of the current piece as last published to listeners.
+     */
+    private int myShownX;
+
+    /**
+     * Board row of the current piece as last published to listeners.
+     */
+    private int myShownY;
+
+    /**
+     * Whether listeners are showing a ghost piece.
+     */
+    private boolean myShownGhost;
+
+    /**
+     * Board row of the ghost piece as last published to listeners.
+     */
+    private int myShownGhostY;
     
     // Constructors
 
@@ -98,16 +166,17 @@ public class Board extends Observable {
      * 
      * @param theWidth Width of the Tetris game board.
      * @param theHeight Height of the Tetris game board.
+     * @throws IllegalArgumentException if the width is not between 1 and
+     *         BitBoard.MAX_WIDTH (32) columns or the height is not positive.
      */
     public Board(final int theWidth, final int theHeight) {
-        super();
         myWidth = theWidth;
         myHeight = theHeight;
-        myFrozenBlocks = new LinkedList<Color[]>();
-        for (int h = 0; h < myHeight; h++) {
-            myFrozenBlocks.add(new Color[myWidth]);
-        }
+        myFrozenBlocks = new BitBoard(myWidth, myHeight);
+        myClearedRows = new int[myHeight];
         myGameStatus = new GameStatus();
+        myListeners = new CopyOnWriteArrayList<BoardListener>();
+        myRandomizer = new UniformRandomizer(new SplittableRandom());
          
         myNonRandomPieces = new ArrayList<TetrisPiece>();
         mySequenceIndex = 0;
@@ -139,8 +208,136 @@ public class Board extends Observable {
     }
     
     
+    /**
+     * Returns the number of frozen blocks in a row.
+     * Maintained as pieces freeze and lines clear, so this does not scan
+     * the board.
+     * 
+     * @param theY The row to query, 0 being the bottom row.
+     * @return The number of frozen blocks in the row.
+     */
+    public int getRowFill(final int theY) {
+        return myFrozenBlocks.getRowFill(theY);
+    }
+    
+    /**
+     * Returns the surface height of a column.
+     * Maintained as pieces freeze and lines clear, so this does not scan
+     * the board.
+     * 
+     * @param theX The column to query.
+     * @return One more than the row of the highest frozen block in the
+     *         column, or zero if the column is empty.
+     */
+    public int getColumnHeight(final int theX) {
+        return myFrozenBlocks.getColumnHeight(theX);
+    }
+    
+    /**
+     * Returns the height of the tallest column.
+     * 
+     * @return One more than the highest row holding a frozen block, or
+     *         zero if the board is empty.
+     */
+    public int getStackHeight() {
+        return myFrozenBlocks.getStackHeight();
+    }
+    
+    /**
+     * Returns the type of the current piece.
+     * 
+     * @return The current piece, or null before the first game starts.
+     */
+    public TetrisPiece getCurrentPiece() {
+        return myCurrentPiece;
+    }
+    
+    /**
+     * Returns the rotation of the current piece.
+     * 
+     * @return The rotation of the current piece.
+     */
+    public Rotation getCurrentRotation() {
+        return myCurrentRotation;
+    }
+    
+    /**
+     * Returns the board column of the current piece.
+     * 
+     * @return The column of the current piece position.
+     */
+    public int getCurrentX() {
+        return myCurrentX;
+    }
+    
+    /**
+     * Returns the board row of the current piece.
+     * 
+     * @return The row of the current piece position.
+     */
+    public int getCurrentY() {
+        return myCurrentY;
+    }
+    
+    /**
+     * Returns the type of the piece that will follow the current piece.
+     * 
+     * @return The next piece, or null before the first game starts.
+     */
+    public TetrisPiece getNextPiece() {
+        return myNextPiece;
+    }
+    
+    /**
+     * Returns a snapshot of the frozen blocks.
+     * 
+     * @return An independent copy of the frozen blocks.
+     */
+    public BitBoard getFrozenBlocks() {
+        return myFrozenBlocks.copy();
+    }
+    
+    /**
+     * Query to check if the game is over.
+     * 
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return myGameStatus.isGameOver();
+    }
+    
+    
+    /**
+     * Returns the frozen blocks themselves, for searches within the model
+     * that run on the thread driving the board.
+     * 
+     * @return The frozen blocks, which must not be modified.
+     */
+    BitBoard frozenBlocks() {
+        return myFrozenBlocks;
+    }
+    
+    
     // public commands
 
+    /**
+     * Registers a listener to be notified of board changes.
+     * 
+     * @param theListener The listener to add.
+     */
+    public void addBoardListener(final BoardListener theListener) {
+        myListeners.add(theListener);
+    }
+
+    /**
+     * Unregisters a listener so it is no longer notified of board changes.
+     * 
+     * @param theListener The listener to remove.
+     */
+    public void removeBoardListener(final BoardListener theListener) {
+        myListeners.remove(theListener);
+    }
+
     /**
      * Resets the board for a new game.
      * This method must be called before the first game
@@ -149,19 +346,31 @@ public class Board extends Observable {
     public void clear() {
         mySequenceIndex = 0;
         myFrozenBlocks.clear();
-        for (int h = 0; h < myHeight; h++) {
-            myFrozenBlocks.add(new Color[myWidth]);
-        }
         /*
          * EDIT: Swapped line 152 and 153 so the game is no longer in game over
-         * status before it updates the next piece, which kept it from using its
-         * notifyObservers() on line 534.
+         * status before it updates the next piece, which kept it from notifying
+         * listeners of the next piece.
          */
         myGameStatus.setGameOver(false);
-        myCurrentPiece = getNextMovablePiece(true);
+        spawnNextPiece(true);
+        updateGhost();
         
-        setChanged();
-        notifyObservers(new BoardData());
+        final BoardData data = new BoardData();
+        markShown();
+        for (final BoardListener listener : myListeners) {
+            listener.onBoardReset(data);
+        }
+    }
+
+    /**
+     * Sets the randomizer that chooses the pieces dealt when no fixed
+     * sequence is set.  The next piece already chosen is kept; call clear()
+     * afterwards to start a game dealt entirely by the new randomizer.
+     * 
+     * @param theRandomizer The piece randomizer.
+     */
+    public void setRandomizer(final PieceRandomizer theRandomizer) {
+        myRandomizer = theRandomizer;
     }
 
     /**
@@ -172,7 +381,8 @@ public class Board extends Observable {
     public void setPieceSequence(final List<TetrisPiece> thePieces) {
         myNonRandomPieces = new ArrayList<TetrisPiece>(thePieces);
         mySequenceIndex = 0;
-        myCurrentPiece = getNextMovablePiece(true);
+        spawnNextPiece(true);
+        updateGhost();
     }
     
     /**
@@ -195,12 +405,12 @@ public class Board extends Observable {
     
     /**
      * Updates the ghost piece on board update.
-     * 
+     * The ghost is placed without publishing anything; the caller publishes
+     * the board once the final position is known.
      */
     private void updateGhost() {
-        myGhostPiece = new MovableTetrisPiece(myCurrentPiece.getTetrisPiece(),
-                                              myCurrentPiece.getPosition(),
-                                              myCurrentPiece.getRotation());
+        myHasGhost = myCurrentPiece != null;
+        myGhostY = myCurrentY;
         dropGhost();
     }
     
@@ -212,25 +422,27 @@ public class Board extends Observable {
      * Clear full lines.
      */
     public void down() {
-        if (!move(myCurrentPiece.down())) {
+        if (!move(myCurrentRotation, myCurrentX, myCurrentY - 1)) {
             // the piece froze, so clear lines and update current piece
-            addPieceToBoardData(myFrozenBlocks, myCurrentPiece);
+            freezePiece();
+            final PieceLocked lock = new PieceLocked();
+            for (final BoardListener listener : myListeners) {
+                listener.onPieceLocked(lock);
+            }
             checkRows();
-            myCurrentPiece = getNextMovablePiece(false);
+            spawnNextPiece(false);
             updateGhost();
-            setChanged();
-            notifyObservers(new BoardData());
+            firePieceMoved();
         }
     }
+
+    /**
+     * Try to move the ghost piece down one row.
+     * The ghost piece is removed if it cannot move down.
+     */
     public void downGhost() {
-        if (!moveGhost(myGhostPiece.down())) {
-            myGhostPiece = null;
-            // the piece froze, so clear lines and update current piece
-            //addPieceToBoardData(myFrozenBlocks, myGhostPiece);
-            //checkRows();
-            //myGhostPiece = getNextMovablePiece(false);
-            //setChanged();
-            //notifyObservers(new BoardData());
+        if (!moveGhost(myGhostY - 1)) {
+            myHasGhost = false;
         }
     }
 
@@ -239,7 +451,7 @@ public class Board extends Observable {
      */
     public void left() {
         if (myCurrentPiece != null) {
-            move(myCurrentPiece.left());
+            move(myCurrentRotation, myCurrentX - 1, myCurrentY);
         }
     }
 
@@ -248,7 +460,7 @@ public class Board extends Observable {
      */
     public void right() {
         if (myCurrentPiece != null) {
-            move(myCurrentPiece.right());
+            move(myCurrentRotation, myCurrentX + 1, myCurrentY);
         }
     }
 
@@ -257,21 +469,7 @@ public class Board extends Observable {
      */
     public void rotateCW() {
         if (myCurrentPiece != null) {
-            if (myCurrentPiece.getTetrisPiece() == TetrisPiece.O) {
-                move(myCurrentPiece.rotateCW());
-            } else {
-                final MovableTetrisPiece cwPiece = myCurrentPiece.rotateCW();
-                final Point[] offsets = WallKick.getWallKicks(cwPiece.getTetrisPiece(),
-                                                    myCurrentPiece.getRotation(),
-                                                    cwPiece.getRotation());
-                for (final Point p : offsets) {
-                    final Point offsetLocation = cwPiece.getPosition().transform(p);
-                    final MovableTetrisPiece temp = cwPiece.setPosition(offsetLocation);
-                    if (move(temp)) {
-                        break;
-                    }
-                }
-            }
+            rotate(myCurrentRotation.clockwise());
         }
     }
     
@@ -280,21 +478,7 @@ public class Board extends Observable {
      */
     public void rotateCCW() {
         if (myCurrentPiece != null) {
-            if (myCurrentPiece.getTetrisPiece() == TetrisPiece.O) {
-                move(myCurrentPiece.rotateCCW());
-            } else {
-                final MovableTetrisPiece ccwPiece = myCurrentPiece.rotateCCW();
-                final Point[] offsets = WallKick.getWallKicks(ccwPiece.getTetrisPiece(),
-                                                    myCurrentPiece.getRotation(),
-                                                    ccwPiece.getRotation());
-                for (final Point p : offsets) {
-                    final Point offsetLocation = ccwPiece.getPosition().transform(p);
-                    final MovableTetrisPiece temp = ccwPiece.setPosition(offsetLocation);
-                    if (move(temp)) {
-                        break;
-                    }
-                }
-            }
+            rotate(myCurrentRotation.counterClockwise());
         }
     }
 
@@ -303,21 +487,22 @@ public class Board extends Observable {
      */
     public void drop() {
         if (!myGameStatus.isGameOver()) {
-            while (isPieceLegal(myCurrentPiece.down())) {
-                down();  // move down as far as possible
+            final int row = myFrozenBlocks.dropRow(myCurrentPiece, myCurrentRotation,
+                                                   myCurrentX, myCurrentY);
+            if (row != myCurrentY) {
+                move(myCurrentRotation, myCurrentX, row);  // move down as far as possible
             }
             down();  // move down one more time to freeze in place
         }
     }
     
     /**
-     * Drop the piece until piece is set.
+     * Drop the ghost piece to where the current piece would land.
      */
     public void dropGhost() {
-        if (!myGameStatus.isGameOver()) {
-            while (isPieceLegal(myGhostPiece.down())) {
-                downGhost();  // move down as far as possible
-            }
+        if (myHasGhost && !myGameStatus.isGameOver()) {
+            myGhostY = myFrozenBlocks.dropRow(myCurrentPiece, myCurrentRotation,
+                                              myCurrentX, myGhostY);
         }
     }
     
@@ -338,7 +523,8 @@ public class Board extends Observable {
         board.add(new Color[myWidth]);
         board.add(new Color[myWidth]);
         if (myCurrentPiece != null) {
-            addPieceToBoardData(board, myCurrentPiece);
+            addPieceToBoardData(board, myCurrentPiece, myCurrentRotation,
+                                myCurrentX, myCurrentY, myCurrentPiece.getColor());
         }
         final StringBuilder sb = new StringBuilder();
         for (int i = board.size() - 1; i >= 0; i--) {
@@ -375,71 +561,114 @@ public class Board extends Observable {
     
     /**
      * Helper function to check if the current piece can be shifted to the
-     * specified position.
+     * specified rotation and position. Nothing changes if the move is illegal.
      * 
-     * @param theMovedPiece the position to attempt to shift the current piece
+     * @param theRotation the rotation to attempt to turn the current piece to
+     * @param theX the column to attempt to shift the current piece to
+     * @param theY the row to attempt to shift the current piece to
      * @return True if the move succeeded
      */
-    private boolean move(final MovableTetrisPiece theMovedPiece) {
+    private boolean move(final Rotation theRotation, final int theX, final int theY) {
         boolean result = false;
-        if (isPieceLegal(theMovedPiece)) {
-            myCurrentPiece = theMovedPiece;
+        if (isPieceLegal(theRotation, theX, theY)) {
+            myCurrentRotation = theRotation;
+            myCurrentX = theX;
+            myCurrentY = theY;
             result = true;
-            setChanged();
-            notifyObservers(new BoardData());
             updateGhost();
+            firePieceMoved();
         }
         return result;
     }
+
+    /**
+     * Helper function to rotate the current piece, trying each wall kick
+     * offset in turn until one is legal.
+     * 
+     * @param theRotation the rotation to attempt to turn the current piece to
+     */
+    private void rotate(final Rotation theRotation) {
+        if (myCurrentPiece == TetrisPiece.O) {
+            move(theRotation, myCurrentX, myCurrentY);
+        } else {
+            final Point[] offsets = WallKick.getWallKicks(myCurrentPiece,
+                                                          myCurrentRotation,
+                                                          theRotation);
+            for (final Point p : offsets) {
+                if (move(theRotation, myCurrentX + p.x(), myCurrentY + p.y())) {
+                    break;
+                }
+            }
+        }
+    }
     
-    private boolean moveGhost(final MovableTetrisPiece theMovedPiece) {
+    /**
+     * Helper function to shift the ghost piece to the specified row.
+     * Nothing is published; the ghost is published with the next board update.
+     * 
+     * @param theY the row to attempt to shift the ghost piece to
+     * @return True if the move succeeded
+     */
+    private boolean moveGhost(final int theY) {
         boolean result = false;
-        if (isPieceLegal(theMovedPiece)) {
-            myGhostPiece = theMovedPiece;
+        if (myHasGhost
+            && myFrozenBlocks.fits(myCurrentPiece, myCurrentRotation, myCurrentX, theY)) {
+            myGhostY = theY;
             result = true;
-            setChanged();
-            notifyObservers(new BoardData());
         }
         return result;
     }
 
     /**
-     * Helper function to test if the piece is in a legal state.
+     * Helper function to test if the current piece would be in a legal state.
      * 
      * Illegal states:
      * - points of the piece exceed the bounds of the board
      * - points of the piece collide with frozen blocks on the board
      * 
-     * @param thePiece MovableTetrisPiece to test.
+     * @param theRotation the rotation of the current piece to test
+     * @param theX the column of the current piece to test
+     * @param theY the row of the current piece to test
      * @return Returns true if the piece is in a legal state; false otherwise
      */
-    private boolean isPieceLegal(final MovableTetrisPiece thePiece) {
-        boolean result = true;
-        
-        for (final Point p : thePiece.getBoardPoints()) {
-            if (p.x() < 0 || p.x() >= myWidth) {
-                result = false;
-            }
-            if (p.y() < 0) {
-                result = false;
-            }
+    private boolean isPieceLegal(final Rotation theRotation, final int theX, final int theY) {
+        return myFrozenBlocks.fits(myCurrentPiece, theRotation, theX, theY);
+    }
+
+    /**
+     * Freezes the current piece into the frozen blocks.
+     * The game is over if any block of the piece is above the board.
+     */
+    private void freezePiece() {
+        if (!myFrozenBlocks.place(myCurrentPiece, myCurrentRotation, myCurrentX, myCurrentY)
+            && !myGameStatus.isGameOver()) {
+            myGameStatus.setGameOver(true);
         }
-        return result && !collision(thePiece);      
     }
 
     /**
-     * Adds a movable Tetris piece into a list of board color data.
+     * Adds a Tetris piece into a list of board color data.
      * 
      * Allows a single data structure to represent the current piece
      * and the frozen blocks.
      * 
      * @param theFrozenBlocks Board to set the piece on.
      * @param thePiece Piece to set on the board.
+     * @param theRotation Rotation of the piece.
+     * @param theX Board column of the piece.
+     * @param theY Board row of the piece.
+     * @param theColor Color to set the blocks of the piece to.
      */
     private void addPieceToBoardData(final List<Color[]> theFrozenBlocks,
-                                     final MovableTetrisPiece thePiece) {
-        for (final Point p : thePiece.getBoardPoints()) {
-            setPoint(theFrozenBlocks, p, thePiece.getTetrisPiece().getColor());
+                                     final TetrisPiece thePiece,
+                                     final Rotation theRotation,
+                                     final int theX, final int theY,
+                                     final Color theColor) {
+        for (int i = 0; i < PieceTable.BLOCKS; i++) {
+            setPoint(theFrozenBlocks,
+                     theX + PieceTable.getCellX(thePiece, theRotation, i),
+                     theY + PieceTable.getCellY(thePiece, theRotation, i),
+                     theColor);
         }
     }
 
@@ -447,29 +676,17 @@ public class Board extends Observable {
      * Checks the board for complete rows.
      */
     private void checkRows() {
-        final List<Integer> completeRows = new ArrayList<Integer>();
-        for (final Color[] row : myFrozenBlocks) {
-            boolean complete = true;
-            for (final Color c : row) {
-                if (c == null) {
-                    complete = false;
-                    break;
-                }
+        if (myFrozenBlocks.hasCompleteRows()) {
+            final int count = myFrozenBlocks.clearCompleteRows(myClearedRows);
+            final List<Integer> completeRows = new ArrayList<Integer>(count);
+            for (int i = 0; i < count; i++) {
+                completeRows.add(myClearedRows[i]);
             }
-            if (complete) {
-                completeRows.add(myFrozenBlocks.indexOf(row));
-                setChanged();
+            final CompletedLines lines = new CompletedLines(completeRows);
+            for (final BoardListener listener : myListeners) {
+                listener.onLinesCleared(lines);
             }
         }
-        // loop through list backwards removing items by index
-        if (!completeRows.isEmpty()) {
-            for (int i = completeRows.size() - 1; i >= 0; i--) {
-                final Color[] row = myFrozenBlocks.get(completeRows.get(i));
-                myFrozenBlocks.remove(row);
-                myFrozenBlocks.add(new Color[myWidth]);
-            }
-        }
-        notifyObservers(new CompletedLines(completeRows));
     }
     
     /**
@@ -479,8 +696,17 @@ public class Board extends Observable {
      */
     private List<Color[]> getBoard() {
         final List<Color[]> board = new ArrayList<Color[]>();
-        for (final Color[] row : myFrozenBlocks) {
-            board.add(row.clone());
+        for (int y = 0; y < myHeight; y++) {
+            final Color[] row = new Color[myWidth];
+            if (myFrozenBlocks.getRowFill(y) > 0) {
+                for (int x = 0; x < myWidth; x++) {
+                    final TetrisPiece piece = myFrozenBlocks.getPiece(x, y);
+                    if (piece != null) {
+                        row[x] = piece.getColor();
+                    }
+                }
+            }
+            board.add(row);
         }
         return board;
     }
@@ -489,85 +715,119 @@ public class Board extends Observable {
      * Determines if a point is on the game board.
      * 
      * @param theBoard Board to test.
-     * @param thePoint Point to test.
+     * @param theX Column of the point to test.
+     * @param theY Row of the point to test.
      * @return True if the point is on the board otherwise false.
      */
-    private boolean isPointOnBoard(final List<Color[]> theBoard, final Point thePoint) {
-        return thePoint.x() >= 0 && thePoint.x() < myWidth && thePoint.y() >= 0
-               && thePoint.y() < theBoard.size();
+    private boolean isPointOnBoard(final List<Color[]> theBoard,
+                                   final int theX, final int theY) {
+        return theX >= 0 && theX < myWidth && theY >= 0 && theY < theBoard.size();
     }
 
     /**
      * Sets a block as color at a board point.
      * 
      * @param theBoard Board to set the point on.
-     * @param thePoint Board point.
+     * @param theX Column of the board point.
+     * @param theY Row of the board point.
      * @param theColor Color to set at board point.
      */
     private void setPoint(final List<Color[]> theBoard,
-                          final Point thePoint,
+                          final int theX, final int theY,
                           final Color theColor) {
         
-        if (isPointOnBoard(theBoard, thePoint)) {
-            final Color[] row = theBoard.get(thePoint.y());
-            row[thePoint.x()] = theColor;
+        if (isPointOnBoard(theBoard, theX, theY)) {
+            final Color[] row = theBoard.get(theY);
+            row[theX] = theColor;
         } else if (!myGameStatus.isGameOver()) {
             myGameStatus.setGameOver(true);
         }
     }
 
     /**
-     * Returns the block color at a specific board point.
-     * 
-     * @param thePoint the specific Point to check
-     * @return Color of the block at point or null if no block exists.
+     * Notifies listeners that the current piece or its ghost changed.
      */
-    private Color getPoint(final Point thePoint) {
-        Color c = null;
-        if (isPointOnBoard(myFrozenBlocks, thePoint)) {
-            c = myFrozenBlocks.get(thePoint.y())[thePoint.x()];
+    private void firePieceMoved() {
+        final PieceMoved move = new PieceMoved();
+        for (final BoardListener listener : myListeners) {
+            listener.onPieceMoved(move);
         }
-        return c;
     }
 
     /**
-     * Helper function to determine of a movable block has collided with set
-     * blocks.
+     * Records the current piece and ghost as the state listeners are showing.
+     */
+    private void markShown() {
+        myShownPiece = myCurrentPiece;
+        myShownRotation = myCurrentRotation;
+        myShownX = myCurrentX;
+        myShownY = myCurrentY;
+        myShownGhost = myHasGhost;
+        myShownGhostY = myGhostY;
+    }
+
+    /**
+     * Creates a movable piece describing a piece state for listeners.
      * 
-     * @param theTest movable TetrisPiece to test for collision.
-     * @return Returns true if any of the blocks has collided with a set board
-     *         block.
+     * @param thePiece Type of the piece, or null for no piece.
+     * @param theRotation Rotation of the piece.
+     * @param theX Board column of the piece.
+     * @param theY Board row of the piece.
+     * @param theShown Whether the piece is shown at all.
+     * @return The movable piece, or null if there is no piece shown.
      */
-    private boolean collision(final MovableTetrisPiece theTest) {
-        boolean res = false;
-        for (final Point p : theTest.getBoardPoints()) {
-            if (getPoint(p) != null) {
-                res = true;
-            }
+    private static MovableTetrisPiece createPiece(final TetrisPiece thePiece,
+                                                  final Rotation theRotation,
+                                                  final int theX, final int theY,
+                                                  final boolean theShown) {
+        MovableTetrisPiece result = null;
+        if (thePiece != null && theShown) {
+            result = new MovableTetrisPiece(thePiece, new Point(theX, theY), theRotation);
         }
-        return res;
+        return result;
     }
 
     /**
-     * Gets the next MovableTetrisPiece.
+     * Makes the next piece the current movable piece.
      * 
      * @param theRestart Restart the non random cycle.
-     * @return A new MovableTetrisPiece.
      */
-    private MovableTetrisPiece getNextMovablePiece(final boolean theRestart) {
-        MovableTetrisPiece piece;
+    private void spawnNextPiece(final boolean theRestart) {
         if (myNextPiece == null || theRestart) {
             prepareNextMovablePiece();
         }
-        int startY = myHeight - 1;
-        if (myNextPiece == TetrisPiece.I) {
-            startY--; 
-        }
-        piece = new MovableTetrisPiece(myNextPiece,
-                    new Point((myWidth - myNextPiece.getWidth()) / 2, startY));
+        myCurrentPiece = myNextPiece;
+        myCurrentRotation = Rotation.NONE;
+        myCurrentX = spawnX(myWidth, myNextPiece);
+        myCurrentY = spawnY(myHeight, myNextPiece);
         
         prepareNextMovablePiece();
-        return piece;
+    }
+    
+    /**
+     * Returns the board column a new piece starts at.
+     * 
+     * @param theWidth The width of the board.
+     * @param thePiece The new piece.
+     * @return The starting column.
+     */
+    static int spawnX(final int theWidth, final TetrisPiece thePiece) {
+        return (theWidth - thePiece.getWidth()) / 2;
+    }
+    
+    /**
+     * Returns the board row a new piece starts at.
+     * 
+     * @param theHeight The height of the board.
+     * @param thePiece The new piece.
+     * @return The starting row.
+     */
+    static int spawnY(final int theHeight, final TetrisPiece thePiece) {
+        int result = theHeight - 1;
+        if (thePiece == TetrisPiece.I) {
+            result--; 
+        }
+        return result;
     }
     
     /**
@@ -576,14 +836,15 @@ public class Board extends Observable {
     private void prepareNextMovablePiece() {
         final boolean share = myNextPiece != null;
         if (myNonRandomPieces == null || myNonRandomPieces.isEmpty()) {
-            myNextPiece = TetrisPiece.getRandomPiece();
+            myNextPiece = myRandomizer.next();
         } else {
             mySequenceIndex %= myNonRandomPieces.size();
             myNextPiece = myNonRandomPieces.get(mySequenceIndex++);
         }
         if (share && !myGameStatus.isGameOver()) {
-            setChanged();
-            notifyObservers(myNextPiece);
+            for (final BoardListener listener : myListeners) {
+                listener.onNextPiece(myNextPiece);
+            }
         }
     }    
 
@@ -594,36 +855,50 @@ public class Board extends Observable {
     // Inner classes
 
     /**
-     * A class to describe the board data to registered Observers.
+     * A class to describe the board data to registered listeners.
      * The board data includes the current piece and the frozen blocks.
+     * A full copy of the board is only published when the board is reset;
+     * later changes are described by PieceMoved, PieceLocked and
+     * CompletedLines so listeners can patch their own copy.
      */
     public final class BoardData {
         
         /**
-         * The board data to pass to observers.
+         * The board data to pass to listeners.
          */
         private final List<Color[]> myBoardData;
 
+        /**
+         * The current piece included in the board data.
+         */
+        private final MovableTetrisPiece myPiece;
+
+        /**
+         * The ghost of the current piece included in the board data.
+         */
+        private final MovableTetrisPiece myGhost;
+
         /**
          * Constructor of the Board Data object.
          */
         protected BoardData() {
+            myPiece = createPiece(myCurrentPiece, myCurrentRotation,
+                                  myCurrentX, myCurrentY, true);
+            myGhost = createPiece(myCurrentPiece, myCurrentRotation,
+                                  myCurrentX, myGhostY, myHasGhost);
             myBoardData = getBoard();
             myBoardData.add(new Color[myWidth]);
             myBoardData.add(new Color[myWidth]);
             myBoardData.add(new Color[myWidth]);
             myBoardData.add(new Color[myWidth]);
             
-            if (myGhostPiece != null) {
-                Color clr = myGhostPiece.getTetrisPiece().getColor();
-                Color newClr = new Color(clr.getRed(), clr.getGreen(), clr.getBlue(), 50);
-                    for (final Point p : myGhostPiece.getBoardPoints()) {
-                        setPoint(myBoardData, p, newClr);
-                    }
-                //addPieceToBoardData(myBoardData, myGhostPiece);
+            if (myHasGhost) {
+                addPieceToBoardData(myBoardData, myCurrentPiece, myCurrentRotation,
+                                    myCurrentX, myGhostY, myCurrentPiece.getGhostColor());
             }
             if (myCurrentPiece != null) {
-                addPieceToBoardData(myBoardData, myCurrentPiece);
+                addPieceToBoardData(myBoardData, myCurrentPiece, myCurrentRotation,
+                                    myCurrentX, myCurrentY, myCurrentPiece.getColor());
             }
         }
 
@@ -639,11 +914,205 @@ public class Board extends Observable {
             }
             return board;
         }
+
+        /**
+         * Returns the current piece, whose blocks the board data includes.
+         * 
+         * @return The piece, or null if there is none.
+         */
+        public MovableTetrisPiece getPiece() {
+            return myPiece;
+        }
+
+        /**
+         * Returns the ghost of the current piece, whose blocks the board data
+         * includes.
+         * 
+         * @return The ghost, or null if none is shown.
+         */
+        public MovableTetrisPiece getGhost() {
+            return myGhost;
+        }
         
     } // end inner class BoardData
 
     /**
-     * A class to describe the lines that have been cleared to registered Observers.
+     * A class to describe a change of the current piece or its ghost to
+     * registered listeners. Listeners erase the old piece and ghost and draw
+     * the new ghost and then the new piece; nothing else on the board changed.
+     * The event holds only the pieces' positions, and each getter builds a new
+     * piece from them, so listeners should call each getter once.
+     */
+    public final class PieceMoved {
+
+        /**
+         * The previously shown piece, or null if none was shown.
+         */
+        private final TetrisPiece myOldPiece;
+
+        /**
+         * Rotation of the previously shown piece.
+         */
+        private final Rotation myOldRotation;
+
+        /**
+         * Board column of the previously shown piece.
+         */
+        private final int myOldX;
+
+        /**
+         * Board row of the previously shown piece.
+         */
+        private final int myOldY;
+
+        /**
+         * Whether a ghost of the previously shown piece was shown.
+         */
+        private final boolean myOldGhost;
+
+        /**
+         * Board row of the previously shown ghost.
+         */
+        private final int myOldGhostY;
+
+        /**
+         * The piece now shown, or null if there is none.
+         */
+        private final TetrisPiece myNewPiece;
+
+        /**
+         * Rotation of the piece now shown.
+         */
+        private final Rotation myNewRotation;
+
+        /**
+         * Board column of the piece now shown.
+         */
+        private final int myNewX;
+
+        /**
+         * Board row of the piece now shown.
+         */
+        private final int myNewY;
+
+        /**
+         * Whether a ghost of the piece now shown is shown.
+         */
+        private final boolean myNewGhost;
+
+        /**
+         * Board row of the ghost now shown.
+         */
+        private final int myNewGhostY;
+
+        /**
+         * Constructor of the Piece Moved object.
+         * Describes the change from the last published piece to the current one.
+         */
+        protected PieceMoved() {
+            myOldPiece = myShownPiece;
+            myOldRotation = myShownRotation;
+            myOldX = myShownX;
+            myOldY = myShownY;
+            myOldGhost = myShownPiece != null && myShownGhost;
+            myOldGhostY = myShownGhostY;
+            markShown();
+            myNewPiece = myCurrentPiece;
+            myNewRotation = myCurrentRotation;
+            myNewX = myCurrentX;
+            myNewY = myCurrentY;
+            myNewGhost = myCurrentPiece != null && myHasGhost;
+            myNewGhostY = myGhostY;
+        }
+
+        /**
+         * Returns the previously shown piece.
+         * 
+         * @return The old piece or null if no piece was shown.
+         */
+        public MovableTetrisPiece getOldPiece() {
+            return createPiece(myOldPiece, myOldRotation, myOldX, myOldY, true);
+        }
+
+        /**
+         * Returns the previously shown ghost piece.
+         * 
+         * @return The old ghost or null if no ghost was shown.
+         */
+        public MovableTetrisPiece getOldGhost() {
+            return createPiece(myOldPiece, myOldRotation, myOldX, myOldGhostY, myOldGhost);
+        }
+
+        /**
+         * Returns the piece now shown.
+         * 
+         * @return The new piece or null if there is no current piece.
+         */
+        public MovableTetrisPiece getNewPiece() {
+            return createPiece(myNewPiece, myNewRotation, myNewX, myNewY, true);
+        }
+
+        /**
+         * Returns the ghost piece now shown.
+         * 
+         * @return The new ghost or null if there is no ghost.
+         */
+        public MovableTetrisPiece getNewGhost() {
+            return createPiece(myNewPiece, myNewRotation, myNewX, myNewGhostY, myNewGhost);
+        }
+        
+    } // end inner class PieceMoved
+
+    /**
+     * A class to describe the current piece freezing in place to registered
+     * listeners. Listeners keep the blocks of the piece, which are now frozen,
+     * and erase its ghost.
+     */
+    public final class PieceLocked {
+
+        /**
+         * The piece that froze.
+         */
+        private final MovableTetrisPiece myPiece;
+
+        /**
+         * The ghost of the piece that froze, or null if none was shown.
+         */
+        private final MovableTetrisPiece myGhost;
+
+        /**
+         * Constructor of the Piece Locked object.
+         */
+        protected PieceLocked() {
+            myPiece = createPiece(myCurrentPiece, myCurrentRotation,
+                                  myCurrentX, myCurrentY, true);
+            myGhost = createPiece(myShownPiece, myShownRotation, myShownX, myShownGhostY,
+                                  myShownGhost);
+            myShownPiece = null;
+        }
+
+        /**
+         * Returns the piece that froze.
+         * 
+         * @return The frozen piece.
+         */
+        public MovableTetrisPiece getPiece() {
+            return myPiece;
+        }
+
+        /**
+         * Returns the ghost that was shown for the piece that froze.
+         * 
+         * @return The old ghost or null if no ghost was shown.
+         */
+        public MovableTetrisPiece getGhost() {
+            return myGhost;
+        }
+        
+    } // end inner class PieceLocked
+
+    /**
+     * A class to describe the lines that have been cleared to registered listeners.
      */
     public final class CompletedLines {
 
@@ -697,8 +1166,11 @@ public class Board extends Observable {
          */
         private void setGameOver(final boolean theGameOverFlag) {
             myGameOver = theGameOverFlag;
-            setChanged();
-            notifyObservers(this);
+            if (theGameOverFlag) {
+                for (final BoardListener listener : myListeners) {
+                    listener.onGameOver();
+                }
+            }
         }
 
         /**
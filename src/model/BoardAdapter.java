@@ -0,0 +1,53 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import model.Board.BoardData;
+import model.Board.CompletedLines;
+import model.Board.PieceLocked;
+import model.Board.PieceMoved;
+
+/**
+ * A BoardListener that ignores every event.
+ * Extend this class to listen for only the events of interest.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public class BoardAdapter implements BoardListener {
+
+    @Override
+    public void onBoardReset(final BoardData theData) {
+        // do nothing
+    }
+
+    @Override
+    public void onPieceMoved(final PieceMoved theMove) {
+        // do nothing
+    }
+
+    @Override
+    public void onPieceLocked(final PieceLocked theLock) {
+        // do nothing
+    }
+
+    @Override
+    public void onLinesCleared(final CompletedLines theLines) {
+        // do nothing
+    }
+
+    @Override
+    public void onNextPiece(final TetrisPiece thePiece) {
+        // do nothing
+    }
+
+    @Override
+    public void onGameOver() {
+        // do nothing
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+/**
+ * Enumeration of the commands that move the pieces of a Board.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public enum BoardCommand {
+
+    /**
+     * Move the current piece left.
+     */
+    LEFT,
+
+    /**
+     * Move the current piece right.
+     */
+    RIGHT,
+
+    /**
+     * Move the current piece down, freezing it if it cannot move.
+     */
+    DOWN,
+
+    /**
+     * Rotate the current piece clockwise.
+     */
+    ROTATE_CW,
+
+    /**
+     * Rotate the current piece counter-clockwise.
+     */
+    ROTATE_CCW,
+
+    /**
+     * Drop the current piece until it freezes.
+     */
+    DROP,
+
+    /**
+     * Advance the board by one gravity step.
+     */
+    STEP;
+
+    /**
+     * Performs this command on a board.
+     * 
+     * @param theBoard The board to command.
+     */
+    public void apply(final Board theBoard) {
+        switch (this) {
+            case LEFT:
+                theBoard.left();
+                break;
+            case RIGHT:
+                theBoard.right();
+                break;
+            case DOWN:
+                theBoard.down();
+                break;
+            case ROTATE_CW:
+                theBoard.rotateCW();
+                break;
+            case ROTATE_CCW:
+                theBoard.rotateCCW();
+                break;
+            case DROP:
+                theBoard.drop();
+                break;
+            case STEP:
+                theBoard.step();
+                break;
+            default:
+                break;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import model.Board.BoardData;
+import model.Board.CompletedLines;
+import model.Board.PieceLocked;
+import model.Board.PieceMoved;
+
+/**
+ * Receives the changes of a Board.
+ * 
+ * Every event object passed to a listener is immutable, so listeners may
+ * hand events to other threads.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public interface BoardListener {
+
+    /**
+     * Called when the board is cleared for a new game.
+     * 
+     * @param theData A full copy of the board.
+     */
+    void onBoardReset(BoardData theData);
+
+    /**
+     * Called when the current piece or its ghost changes position.
+     * 
+     * @param theMove The old and new positions of the piece and ghost.
+     */
+    void onPieceMoved(PieceMoved theMove);
+
+    /**
+     * Called when the current piece freezes in place.
+     * 
+     * @param theLock The piece that froze.
+     */
+    void onPieceLocked(PieceLocked theLock);
+
+    /**
+     * Called when complete lines are removed from the board.
+     * 
+     * @param theLines The lines that were removed.
+     */
+    void onLinesCleared(CompletedLines theLines);
+
+    /**
+     * Called when the piece that plays next changes.
+     * 
+     * @param thePiece The next piece.
+     */
+    void onNextPiece(TetrisPiece thePiece);
+
+    /**
+     * Called when the game is over.
+     */
+    void onGameOver();
+
+}
@@ -0,0 +1,27 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+/**
+ * Receives every command a GameEngine performs on its board, including the
+ * gravity steps, in the order they are performed.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public interface CommandListener {
+
+    /**
+     * Called after the engine performs a command, on the thread driving
+     * the engine.
+     * 
+     * @param theTick The engine tick the command was performed in.
+     * @param theCommand The command.
+     */
+    void onCommand(long theTick, BoardCommand theCommand);
+
+}
@@ -0,0 +1,338 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a Board on its own fixed-timestep clock, without any display.
+ * 
+ * Time is counted in ticks.  Gravity advances the board by one step every
+ * few ticks.  The engine can be ticked by a caller, run unthrottled for
+ * simulations, or run at wall-clock speed on its own thread.
+ * 
+ * Only the thread driving the engine may touch the board.  Other threads
+ * send commands with submit(); they are applied at the start of the next
+ * tick.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class GameEngine {
+
+    /**
+     * The number of ticks in one second of wall-clock time.
+     */
+    public static final int TICKS_PER_SECOND = 60;
+
+    /**
+     * The length of one tick in nanoseconds.
+     */
+    public static final long NANOS_PER_TICK = 1000000000L / TICKS_PER_SECOND;
+
+    /**
+     * The default number of ticks between gravity steps.
+     */
+    public static final int DEFAULT_GRAVITY = TICKS_PER_SECOND;
+
+    /**
+     * The most ticks advance() runs at once, so a stalled clock does not
+     * replay a long burst of ticks.
+     */
+    private static final int MAX_CATCH_UP = 5;
+
+    /**
+     * Milliseconds in one second.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * The board being run.
+     */
+    private final Board myBoard;
+
+    /**
+     * Commands waiting for the next tick.
+     */
+    private final Queue<BoardCommand> myInput;
+
+    /**
+     * The listeners told of every command performed.
+     */
+    private final List<CommandListener> myListeners;
+
+    /**
+     * The number of ticks run so far.
+     */
+    private volatile long myTick;
+
+    /**
+     * The number of ticks between gravity steps.
+     */
+    private volatile int myGravity;
+
+    /**
+     * The ticks since the last gravity step.
+     */
+    private int myGravityTicks;
+
+    /**
+     * Wall-clock time not yet turned into ticks, in nanoseconds.
+     */
+    private long myAccumulator;
+
+    /**
+     * The thread running the engine at wall-clock speed, or null.
+     */
+    private Thread myThread;
+
+    /**
+     * Whether the wall-clock thread should keep running.
+     */
+    private volatile boolean myRunning;
+
+    /**
+     * Constructs an engine for a board.
+     * 
+     * @param theBoard The board to run.
+     */
+    public GameEngine(final Board theBoard) {
+        myBoard = theBoard;
+        myInput = new ConcurrentLinkedQueue<BoardCommand>();
+        myListeners = new CopyOnWriteArrayList<CommandListener>();
+        myGravity = DEFAULT_GRAVITY;
+    }
+
+    // public queries
+
+    /**
+     * Returns the board being run.
+     * 
+     * @return The board.
+     */
+    public Board getBoard() {
+        return myBoard;
+    }
+
+    /**
+     * Returns the number of ticks run so far.
+     * 
+     * @return The current tick.
+     */
+    public long getTick() {
+        return myTick;
+    }
+
+    /**
+     * Returns the number of ticks between gravity steps.
+     * 
+     * @return The gravity in ticks per step.
+     */
+    public int getGravity() {
+        return myGravity;
+    }
+
+    /**
+     * Converts a delay in milliseconds to a whole number of ticks.
+     * 
+     * @param theMillis The delay in milliseconds.
+     * @return The delay in ticks, at least one.
+     */
+    public static int millisToTicks(final long theMillis) {
+        return (int) Math.max(1, Math.round(theMillis * TICKS_PER_SECOND / MILLIS_PER_SECOND));
+    }
+
+    // public commands
+
+    /**
+     * Sets the number of ticks between gravity steps.
+     * 
+     * @param theTicks The gravity in ticks per step.
+     * @throws IllegalArgumentException if theTicks is less than one.
+     */
+    public void setGravity(final int theTicks) {
+        if (theTicks < 1) {
+            throw new IllegalArgumentException("Gravity must be at least one tick");
+        }
+        myGravity = theTicks;
+    }
+
+    /**
+     * Adds a listener told of every command performed.
+     * 
+     * @param theListener The listener.
+     */
+    public void addCommandListener(final CommandListener theListener) {
+        myListeners.add(theListener);
+    }
+
+    /**
+     * Removes a command listener.
+     * 
+     * @param theListener The listener.
+     */
+    public void removeCommandListener(final CommandListener theListener) {
+        myListeners.remove(theListener);
+    }
+
+    /**
+     * Resets the clock for a new game.  Pending commands are discarded.
+     */
+    public void reset() {
+        myInput.clear();
+        myTick = 0;
+        myGravityTicks = 0;
+        myAccumulator = 0;
+    }
+
+    /**
+     * Queues a command for the next tick.  Safe to call from any thread.
+     * 
+     * @param theCommand The command to perform.
+     */
+    public void submit(final BoardCommand theCommand) {
+        myInput.add(theCommand);
+    }
+
+    /**
+     * Performs a command immediately.  Must be called from the thread
+     * driving the engine.
+     * 
+     * @param theCommand The command to perform.
+     */
+    public void execute(final BoardCommand theCommand) {
+        theCommand.apply(myBoard);
+        for (final CommandListener listener : myListeners) {
+            listener.onCommand(myTick, theCommand);
+        }
+    }
+
+    /**
+     * Runs one tick: performs the queued commands, then applies gravity.
+     * 
+     * @return True if gravity stepped the board during this tick.
+     */
+    public boolean tick() {
+        BoardCommand command = myInput.poll();
+        while (command != null) {
+            execute(command);
+            command = myInput.poll();
+        }
+        boolean stepped = false;
+        myGravityTicks++;
+        if (myGravityTicks >= myGravity) {
+            myGravityTicks = 0;
+            execute(BoardCommand.STEP);
+            stepped = true;
+        }
+        myTick++;
+        return stepped;
+    }
+
+    /**
+     * Advances the clock by elapsed wall-clock time, running every tick
+     * that has come due.
+     * 
+     * @param theElapsedNanos The wall-clock time since the last call.
+     * @return The number of ticks run.
+     */
+    public int advance(final long theElapsedNanos) {
+        myAccumulator = Math.min(myAccumulator + theElapsedNanos,
+                                 MAX_CATCH_UP * NANOS_PER_TICK);
+        int ticks = 0;
+        while (myAccumulator >= NANOS_PER_TICK) {
+            myAccumulator -= NANOS_PER_TICK;
+            tick();
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /**
+     * Runs ticks as fast as possible until the game is over.
+     * 
+     * @param theMaxTicks The most ticks to run.
+     * @return The number of ticks run.
+     */
+    public long run(final long theMaxTicks) {
+        long ticks = 0;
+        while (ticks < theMaxTicks && !myBoard.isGameOver()) {
+            tick();
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /**
+     * Starts running the engine at wall-clock speed on its own thread.
+     * The thread stops when the game is over or stop() is called; after
+     * either, start() runs the engine again.
+     * Listeners of the board are notified on the engine thread.
+     */
+    public synchronized void start() {
+        if (myThread == null) {
+            myRunning = true;
+            myThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runRealTime();
+                }
+            }, "GameEngine");
+            myThread.setDaemon(true);
+            myThread.start();
+        }
+    }
+
+    /**
+     * Stops the wall-clock thread and waits for it to finish.
+     * 
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void stop() throws InterruptedException {
+        final Thread thread;
+        synchronized (this) {
+            thread = myThread;
+            myRunning = false;
+            myThread = null;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    // private helper methods
+
+    /**
+     * The wall-clock loop: runs the ticks that have come due, then sleeps
+     * until the next one.
+     */
+    private void runRealTime() {
+        try {
+            long last = System.nanoTime();
+            while (myRunning && !myBoard.isGameOver()) {
+                final long now = System.nanoTime();
+                advance(now - last);
+                last = now;
+                LockSupport.parkNanos(NANOS_PER_TICK - myAccumulator);
+            }
+        } finally {
+            // a game that ended by itself leaves no thread behind, so start()
+            // runs the clock again; a thread already replaced is left alone
+            synchronized (this) {
+                if (myThread == Thread.currentThread()) {
+                    myRunning = false;
+                    myThread = null;
+                }
+            }
+        }
+    }
+
+}
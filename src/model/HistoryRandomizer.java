@@ -0,0 +1,108 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deals pieces that avoid repeating the recently dealt ones.
+ * 
+ * Each draw is rerolled a few times while it matches a piece in the history
+ * of the last four pieces. The history starts full of S and Z pieces so the
+ * game never opens with a piece that is hard to place.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class HistoryRandomizer implements PieceRandomizer {
+
+    /**
+     * The number of pieces remembered.
+     */
+    private static final int HISTORY = 4;
+
+    /**
+     * The number of draws made before accepting a repeat.
+     */
+    private static final int TRIES = 6;
+
+    /**
+     * The TetrisPiece types.
+     */
+    private static final TetrisPiece[] PIECES = TetrisPiece.values();
+
+    /**
+     * The random source.
+     */
+    private final SplittableRandom myRandom;
+
+    /**
+     * The recently dealt pieces, used as a ring.
+     */
+    private final TetrisPiece[] myHistory;
+
+    /**
+     * The slot of the oldest piece in the history.
+     */
+    private int myOldest;
+
+    /**
+     * Constructs a randomizer with a fixed seed.
+     * 
+     * @param theSeed The seed of the piece sequence.
+     */
+    public HistoryRandomizer(final long theSeed) {
+        this(new SplittableRandom(theSeed));
+    }
+
+    /**
+     * Constructs a randomizer drawing from a random source.
+     * The source must not be shared with another thread.
+     * 
+     * @param theRandom The random source.
+     */
+    public HistoryRandomizer(final SplittableRandom theRandom) {
+        myRandom = theRandom;
+        myHistory = new TetrisPiece[] {TetrisPiece.Z, TetrisPiece.S,
+                                       TetrisPiece.Z, TetrisPiece.S};
+    }
+
+    @Override
+    public TetrisPiece next() {
+        TetrisPiece result = draw();
+        for (int i = 1; i < TRIES && isRecent(result); i++) {
+            result = draw();
+        }
+        myHistory[myOldest] = result;
+        myOldest = (myOldest + 1) % HISTORY;
+        return result;
+    }
+
+    /**
+     * Draws a piece with equal probability.
+     * 
+     * @return A random TetrisPiece.
+     */
+    private TetrisPiece draw() {
+        return PIECES[myRandom.nextInt(PIECES.length)];
+    }
+
+    /**
+     * Tests if a piece is in the history.
+     * 
+     * @param thePiece The piece to look for.
+     * @return True if the piece was dealt recently.
+     */
+    private boolean isRecent(final TetrisPiece thePiece) {
+        boolean result = false;
+        for (final TetrisPiece piece : myHistory) {
+            result |= piece == thePiece;
+        }
+        return result;
+    }
+
+}
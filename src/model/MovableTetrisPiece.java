@@ -207,42 +207,23 @@ public final class MovableTetrisPiece {
 
     /**
      * Get the block points of the TetrisPiece transformed by x and y.
+     * The rotated points come from the precomputed PieceTable.
      * 
      * @param thePoint the point to transform the points around.
      * @return array of TetrisPiece block points.
      */
     private Point[] getPoints(final Point thePoint) {
 
-        final Point[] blocks = myTetrisPiece.getPoints();
-        
-        for (int i = 0; i < blocks.length; i++) {
-            final Point block = blocks[i];
-            if (myTetrisPiece != TetrisPiece.O) {
-                switch (myRotation) {
-                    case QUARTER:
-                        blocks[i] = new Point(block.y(),
-                                              myTetrisPiece.getWidth() - block.x() - 1);
-                        
-                        break;
-                    case HALF:
-                        blocks[i] = new Point(myTetrisPiece.getWidth() - block.x() - 1,
-                                              myTetrisPiece.getWidth() - block.y() - 1);
-                        
-                        break;
-                    case THREEQUARTER:                 
-                        blocks[i] = new Point(myTetrisPiece.getWidth() - block.y() - 1,
-                                              block.x());
-                        
-                        
-                        break;
-                    default:
-                }
-            }
-            if (thePoint != null) {
-                blocks[i] = blocks[i].transform(thePoint);
+        final Point[] local = PieceTable.getLocalPoints(myTetrisPiece, myRotation);
+        final Point[] blocks;
+        if (thePoint == null) {
+            blocks = local.clone();
+        } else {
+            blocks = new Point[local.length];
+            for (int i = 0; i < local.length; i++) {
+                blocks[i] = local[i].transform(thePoint);
             }
         }
-
         return blocks;
     }
 
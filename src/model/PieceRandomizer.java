@@ -0,0 +1,27 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+/**
+ * Chooses the sequence of pieces a Board deals.
+ * 
+ * Implementations keep their own random source so each board can be seeded
+ * and replayed independently of every other board.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public interface PieceRandomizer {
+
+    /**
+     * Returns the next piece to deal.
+     * 
+     * @return The next TetrisPiece.
+     */
+    TetrisPiece next();
+
+}
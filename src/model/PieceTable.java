@@ -0,0 +1,287 @@
+/*
+ * TCSS 305
+ *
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed block layouts of every TetrisPiece in every Rotation.
+ *
+ * The tables are built once when the class is initialized so the blocks of a
+ * piece at any position and rotation can be queried without allocating.
+ *
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class PieceTable {
+
+    /**
+     * The number of blocks in a TetrisPiece.
+     */
+    public static final int BLOCKS = 4;
+
+    /**
+     * The number of Rotation values.
+     */
+    private static final int ROTATIONS = Rotation.values().length;
+
+    /**
+     * The local points of each piece and rotation.
+     */
+    private static final Point[][] POINTS;
+
+    /**
+     * Local x coordinate of each block, indexed by shape then block.
+     */
+    private static final int[] CELL_X;
+
+    /**
+     * Local y coordinate of each block, indexed by shape then block.
+     */
+    private static final int[] CELL_Y;
+
+    /**
+     * Occupancy mask of each local row, indexed by shape then row.
+     */
+    private static final int[] ROW_MASKS;
+
+    /**
+     * Lowest local y coordinate in each local column, indexed by shape then
+     * column; Integer.MAX_VALUE marks a column without blocks.
+     */
+    private static final int[] COLUMN_BOTTOMS;
+
+    /**
+     * Smallest local x coordinate of each shape.
+     */
+    private static final int[] MIN_X;
+
+    /**
+     * Largest local x coordinate of each shape.
+     */
+    private static final int[] MAX_X;
+
+    /**
+     * Smallest local y coordinate of each shape.
+     */
+    private static final int[] MIN_Y;
+
+    /**
+     * Largest local y coordinate of each shape.
+     */
+    private static final int[] MAX_Y;
+
+    static {
+        final int shapes = TetrisPiece.values().length * ROTATIONS;
+        POINTS = new Point[shapes][];
+        CELL_X = new int[shapes * BLOCKS];
+        CELL_Y = new int[shapes * BLOCKS];
+        ROW_MASKS = new int[shapes * BLOCKS];
+        COLUMN_BOTTOMS = new int[shapes * BLOCKS];
+        Arrays.fill(COLUMN_BOTTOMS, Integer.MAX_VALUE);
+        MIN_X = new int[shapes];
+        MAX_X = new int[shapes];
+        MIN_Y = new int[shapes];
+        MAX_Y = new int[shapes];
+        for (final TetrisPiece piece : TetrisPiece.values()) {
+            for (final Rotation rotation : Rotation.values()) {
+                buildShape(piece, rotation);
+            }
+        }
+    }
+
+    /**
+     * Private constructor to inhibit external instantiation.
+     */
+    private PieceTable() {
+        // do nothing
+    }
+
+    /**
+     * Returns the local x coordinate of a block.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @param theBlock The index of the block, 0 to BLOCKS - 1.
+     * @return The x coordinate of the block relative to the piece position.
+     */
+    public static int getCellX(final TetrisPiece thePiece, final Rotation theRotation,
+                               final int theBlock) {
+        return CELL_X[shape(thePiece, theRotation) * BLOCKS + theBlock];
+    }
+
+    /**
+     * Returns the local y coordinate of a block.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @param theBlock The index of the block, 0 to BLOCKS - 1.
+     * @return The y coordinate of the block relative to the piece position.
+     */
+    public static int getCellY(final TetrisPiece thePiece, final Rotation theRotation,
+                               final int theBlock) {
+        return CELL_Y[shape(thePiece, theRotation) * BLOCKS + theBlock];
+    }
+
+    /**
+     * Returns the occupancy mask of one local row of a piece.
+     * Bit x is set when the piece has a block at local column x.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @param theRow The local row, 0 to BLOCKS - 1.
+     * @return The occupancy mask of the row.
+     */
+    public static int getRowMask(final TetrisPiece thePiece, final Rotation theRotation,
+                                 final int theRow) {
+        return ROW_MASKS[shape(thePiece, theRotation) * BLOCKS + theRow];
+    }
+
+    /**
+     * Returns the lowest local y coordinate of the blocks in one local
+     * column of a piece.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @param theColumn The local column, 0 to BLOCKS - 1.
+     * @return The lowest local row in the column, or Integer.MAX_VALUE if the
+     *         piece has no blocks in the column.
+     */
+    public static int getColumnBottom(final TetrisPiece thePiece, final Rotation theRotation,
+                                      final int theColumn) {
+        return COLUMN_BOTTOMS[shape(thePiece, theRotation) * BLOCKS + theColumn];
+    }
+
+    /**
+     * Returns the smallest local x coordinate of the blocks of a piece.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @return The leftmost local column.
+     */
+    public static int getMinX(final TetrisPiece thePiece, final Rotation theRotation) {
+        return MIN_X[shape(thePiece, theRotation)];
+    }
+
+    /**
+     * Returns the largest local x coordinate of the blocks of a piece.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @return The rightmost local column.
+     */
+    public static int getMaxX(final TetrisPiece thePiece, final Rotation theRotation) {
+        return MAX_X[shape(thePiece, theRotation)];
+    }
+
+    /**
+     * Returns the smallest local y coordinate of the blocks of a piece.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @return The lowest local row.
+     */
+    public static int getMinY(final TetrisPiece thePiece, final Rotation theRotation) {
+        return MIN_Y[shape(thePiece, theRotation)];
+    }
+
+    /**
+     * Returns the largest local y coordinate of the blocks of a piece.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @return The highest local row.
+     */
+    public static int getMaxY(final TetrisPiece thePiece, final Rotation theRotation) {
+        return MAX_Y[shape(thePiece, theRotation)];
+    }
+
+    /**
+     * Returns the shared local points of a piece.
+     * Points are immutable, but callers must not modify the returned array.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @return The local points of the piece.
+     */
+    static Point[] getLocalPoints(final TetrisPiece thePiece, final Rotation theRotation) {
+        return POINTS[shape(thePiece, theRotation)];
+    }
+
+    // private methods
+
+    /**
+     * Returns the table index of a piece and rotation.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     * @return The index of the shape in the tables.
+     */
+    private static int shape(final TetrisPiece thePiece, final Rotation theRotation) {
+        return thePiece.ordinal() * ROTATIONS + theRotation.ordinal();
+    }
+
+    /**
+     * Fills the table entries of one piece and rotation.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation of the piece.
+     */
+    private static void buildShape(final TetrisPiece thePiece, final Rotation theRotation) {
+        final int shape = shape(thePiece, theRotation);
+        final Point[] blocks = thePiece.getPoints();
+        MIN_X[shape] = Integer.MAX_VALUE;
+        MAX_X[shape] = Integer.MIN_VALUE;
+        MIN_Y[shape] = Integer.MAX_VALUE;
+        MAX_Y[shape] = Integer.MIN_VALUE;
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = rotate(thePiece, theRotation, blocks[i]);
+            final int x = blocks[i].x();
+            final int y = blocks[i].y();
+            CELL_X[shape * BLOCKS + i] = x;
+            CELL_Y[shape * BLOCKS + i] = y;
+            ROW_MASKS[shape * BLOCKS + y] |= 1 << x;
+            COLUMN_BOTTOMS[shape * BLOCKS + x] =
+                Math.min(COLUMN_BOTTOMS[shape * BLOCKS + x], y);
+            MIN_X[shape] = Math.min(MIN_X[shape], x);
+            MAX_X[shape] = Math.max(MAX_X[shape], x);
+            MIN_Y[shape] = Math.min(MIN_Y[shape], y);
+            MAX_Y[shape] = Math.max(MAX_Y[shape], y);
+        }
+        POINTS[shape] = blocks;
+    }
+
+    /**
+     * Rotates a single block of a piece.
+     *
+     * @param thePiece The TetrisPiece.
+     * @param theRotation The rotation to apply.
+     * @param theBlock The unrotated block.
+     * @return The rotated block.
+     */
+    private static Point rotate(final TetrisPiece thePiece, final Rotation theRotation,
+                                final Point theBlock) {
+        Point result = theBlock;
+        if (thePiece != TetrisPiece.O) {
+            final int size = thePiece.getWidth() - 1;
+            switch (theRotation) {
+                case QUARTER:
+                    result = new Point(theBlock.y(), size - theBlock.x());
+                    break;
+                case HALF:
+                    result = new Point(size - theBlock.x(), size - theBlock.y());
+                    break;
+                case THREEQUARTER:
+                    result = new Point(size - theBlock.y(), theBlock.x());
+                    break;
+                default:
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,553 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds every placement the current piece can reach and lock into.
+ * 
+ * A breadth first search walks the (rotation, x, y) states reachable with
+ * the moves a Board accepts: left, right, down, and both rotations with
+ * their wall kicks.  A state the piece cannot move down from is a landing
+ * placement.  Placements that cover the same cells are reported once, with
+ * the shortest path to reach them.
+ * 
+ * A finder reuses its buffers between searches and never allocates while
+ * searching, so one finder should be kept per thread; it is not thread
+ * safe.  Results stay valid until the next search.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class PlacementFinder {
+
+    /**
+     * Room left around the board for piece positions whose empty local
+     * columns or rows lie outside it.
+     */
+    private static final int PAD = 4;
+
+    /**
+     * The number of Rotation values.
+     */
+    private static final int ROTATIONS = Rotation.values().length;
+
+    /**
+     * The rotations indexed by ordinal.
+     */
+    private static final Rotation[] ROTATION_VALUES = Rotation.values();
+
+    /**
+     * Bits in a visited word.
+     */
+    private static final int WORD_BITS = Long.SIZE;
+
+    /**
+     * Bits per cell in a placement key.
+     */
+    private static final int KEY_BITS = 16;
+
+    /**
+     * The commands indexed by ordinal.
+     */
+    private static final BoardCommand[] COMMANDS = BoardCommand.values();
+
+    /**
+     * Wall kick offsets of each piece, rotation and direction, in the order
+     * a Board tries them; indexed by (shape * 2 + direction).
+     */
+    private static final Point[][] KICKS;
+
+    static {
+        final TetrisPiece[] pieces = TetrisPiece.values();
+        KICKS = new Point[pieces.length * ROTATIONS * 2][];
+        for (final TetrisPiece piece : pieces) {
+            for (final Rotation rotation : ROTATION_VALUES) {
+                final int shape = piece.ordinal() * ROTATIONS + rotation.ordinal();
+                KICKS[shape * 2] = kicks(piece, rotation, rotation.clockwise());
+                KICKS[shape * 2 + 1] = kicks(piece, rotation, rotation.counterClockwise());
+            }
+        }
+    }
+
+    /**
+     * Width of the board searched.
+     */
+    private final int myWidth;
+
+    /**
+     * Height of the board searched.
+     */
+    private final int myHeight;
+
+    /**
+     * The number of x positions in the state space.
+     */
+    private final int myXSpan;
+
+    /**
+     * The number of y positions in the state space.
+     */
+    private final int myYSpan;
+
+    /**
+     * One bit per state, set once the state is queued.
+     */
+    private final long[] myVisited;
+
+    /**
+     * The states in the order they were queued.
+     */
+    private final int[] myQueue;
+
+    /**
+     * The state each state was reached from.
+     */
+    private final int[] myParent;
+
+    /**
+     * The ordinal of the command that reached each state.
+     */
+    private final byte[] myMove;
+
+    /**
+     * The landing states found, in search order.
+     */
+    private final int[] myPlacements;
+
+    /**
+     * The cell key of each landing state found.
+     */
+    private final long[] myKeys;
+
+    /**
+     * The path buffer used while building paths.
+     */
+    private final byte[] myPath;
+
+    /**
+     * The number of placements found.
+     */
+    private int myCount;
+
+    /**
+     * The piece searched for.
+     */
+    private TetrisPiece myPiece;
+
+    /**
+     * Constructs a finder for boards of one size.
+     * 
+     * @param theWidth Width of the boards to search.
+     * @param theHeight Height of the boards to search.
+     * @throws IllegalArgumentException if the board is too large for the
+     *         cell keys used to tell placements apart.
+     */
+    public PlacementFinder(final int theWidth, final int theHeight) {
+        myWidth = theWidth;
+        myHeight = theHeight;
+        myXSpan = theWidth + 2 * PAD;
+        myYSpan = theHeight + 2 * PAD;
+        if (myXSpan * myYSpan > 1 << KEY_BITS) {
+            throw new IllegalArgumentException("Board too large to search "
+                                               + theWidth + "x" + theHeight);
+        }
+        final int states = myXSpan * myYSpan * ROTATIONS;
+        myVisited = new long[(states + WORD_BITS - 1) / WORD_BITS];
+        myQueue = new int[states];
+        myParent = new int[states];
+        myMove = new byte[states];
+        myPlacements = new int[states];
+        myKeys = new long[states];
+        myPath = new byte[states];
+    }
+
+    // public queries
+
+    /**
+     * Returns the number of placements found by the last search.
+     * 
+     * @return The number of placements.
+     */
+    public int getCount() {
+        return myCount;
+    }
+
+    /**
+     * Returns the piece the last search was for.
+     * 
+     * @return The piece, or null before the first search.
+     */
+    public TetrisPiece getPiece() {
+        return myPiece;
+    }
+
+    /**
+     * Returns the rotation of a placement.
+     * 
+     * @param theIndex The index of the placement, 0 to getCount() - 1.
+     * @return The rotation of the piece when it locks.
+     */
+    public Rotation getRotation(final int theIndex) {
+        return ROTATION_VALUES[myPlacements[theIndex] / (myXSpan * myYSpan)];
+    }
+
+    /**
+     * Returns the board column of a placement.
+     * 
+     * @param theIndex The index of the placement, 0 to getCount() - 1.
+     * @return The column of the piece position when it locks.
+     */
+    public int getX(final int theIndex) {
+        return myPlacements[theIndex] % myXSpan - PAD;
+    }
+
+    /**
+     * Returns the board row of a placement.
+     * 
+     * @param theIndex The index of the placement, 0 to getCount() - 1.
+     * @return The row of the piece position when it locks.
+     */
+    public int getY(final int theIndex) {
+        return myPlacements[theIndex] / myXSpan % myYSpan - PAD;
+    }
+
+    /**
+     * Returns the commands that move the piece from where the search
+     * started to a placement and lock it there.  The path is one of the
+     * shortest and ends with DROP.
+     * 
+     * @param theIndex The index of the placement, 0 to getCount() - 1.
+     * @return The commands, in order.
+     */
+    public List<BoardCommand> getPath(final int theIndex) {
+        int length = 0;
+        int state = myPlacements[theIndex];
+        while (myParent[state] != state) {
+            myPath[length] = myMove[state];
+            length++;
+            state = myParent[state];
+        }
+        int start = 0;
+        while (start < length && myPath[start] == BoardCommand.DOWN.ordinal()) {
+            start++;
+        }
+        final List<BoardCommand> result = new ArrayList<BoardCommand>(length - start + 1);
+        for (int i = length - 1; i >= start; i--) {
+            result.add(COMMANDS[myPath[i]]);
+        }
+        result.add(BoardCommand.DROP);
+        return Collections.unmodifiableList(result);
+    }
+
+    // public commands
+
+    /**
+     * Finds the placements of the current piece of a board.  Must be called
+     * on the thread that drives the board.
+     * 
+     * @param theBoard The board to search.
+     * @return The number of placements found.
+     */
+    public int find(final Board theBoard) {
+        return find(theBoard.frozenBlocks(), theBoard.getCurrentPiece(),
+                    theBoard.getCurrentRotation(), theBoard.getCurrentX(),
+                    theBoard.getCurrentY());
+    }
+
+    /**
+     * Finds the placements of a piece.
+     * 
+     * @param theBlocks The frozen blocks, the same size as this finder.
+     * @param thePiece The piece to place, or null for none.
+     * @param theRotation The rotation the piece starts in.
+     * @param theX The board column the piece starts at.
+     * @param theY The board row the piece starts at.
+     * @return The number of placements found; zero if the piece does not
+     *         fit where it starts.
+     */
+    public int find(final BitBoard theBlocks, final TetrisPiece thePiece,
+                    final Rotation theRotation, final int theX, final int theY) {
+        myPiece = thePiece;
+        myCount = 0;
+        if (thePiece != null && inSpace(theX, theY)
+            && theBlocks.fits(thePiece, theRotation, theX, theY)) {
+            search(theBlocks, state(theRotation.ordinal(), theX, theY));
+        }
+        return myCount;
+    }
+
+    /**
+     * Finds the placements of a piece starting where a Board spawns new
+     * pieces, as used to look ahead at the next piece.
+     * 
+     * @param theBlocks The frozen blocks, the same size as this finder.
+     * @param thePiece The piece to place, or null for none.
+     * @return The number of placements found; zero if the piece does not
+     *         fit where it spawns.
+     */
+    public int findSpawned(final BitBoard theBlocks, final TetrisPiece thePiece) {
+        int result = 0;
+        if (thePiece == null) {
+            myPiece = null;
+            myCount = 0;
+        } else {
+            result = find(theBlocks, thePiece, Rotation.NONE,
+                          Board.spawnX(theBlocks.getWidth(), thePiece),
+                          Board.spawnY(theBlocks.getHeight(), thePiece));
+        }
+        return result;
+    }
+
+    // private helper methods
+
+    /**
+     * Searches every state reachable from a starting state.
+     * 
+     * @param theBlocks The frozen blocks.
+     * @param theRoot The starting state.
+     */
+    private void search(final BitBoard theBlocks, final int theRoot) {
+        Arrays.fill(myVisited, 0);
+        visit(theRoot);
+        myParent[theRoot] = theRoot;
+        myQueue[0] = theRoot;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            final int state = myQueue[head];
+            head++;
+            final int rot = state / (myXSpan * myYSpan);
+            final int x = state % myXSpan - PAD;
+            final int y = state / myXSpan % myYSpan - PAD;
+            final Rotation rotation = ROTATION_VALUES[rot];
+            tail = tryMove(theBlocks, state, rot, x - 1, y, BoardCommand.LEFT, tail);
+            tail = tryMove(theBlocks, state, rot, x + 1, y, BoardCommand.RIGHT, tail);
+            tail = tryRotate(theBlocks, state, rotation, x, y, 0, tail);
+            tail = tryRotate(theBlocks, state, rotation, x, y, 1, tail);
+            if (theBlocks.fits(myPiece, rotation, x, y - 1)) {
+                tail = tryMove(theBlocks, state, rot, x, y - 1, BoardCommand.DOWN, tail);
+            } else {
+                addPlacement(state, rotation, x, y);
+            }
+        }
+    }
+
+    /**
+     * Queues a move to a position if the piece fits there.
+     * 
+     * @param theBlocks The frozen blocks.
+     * @param theFrom The state moved from.
+     * @param theRot The rotation ordinal of the new state.
+     * @param theX The board column of the new state.
+     * @param theY The board row of the new state.
+     * @param theCommand The command making the move.
+     * @param theTail The end of the queue.
+     * @return The new end of the queue.
+     */
+    private int tryMove(final BitBoard theBlocks, final int theFrom, final int theRot,
+                        final int theX, final int theY, final BoardCommand theCommand,
+                        final int theTail) {
+        int tail = theTail;
+        if (inSpace(theX, theY)) {
+            final int state = state(theRot, theX, theY);
+            if (!isVisited(state)
+                && theBlocks.fits(myPiece, ROTATION_VALUES[theRot], theX, theY)) {
+                visit(state);
+                myParent[state] = theFrom;
+                myMove[state] = (byte) theCommand.ordinal();
+                myQueue[tail] = state;
+                tail++;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Queues a rotation, using the first wall kick that fits as a Board
+     * would.
+     * 
+     * @param theBlocks The frozen blocks.
+     * @param theFrom The state rotated from.
+     * @param theRotation The rotation of the state rotated from.
+     * @param theX The board column of the state rotated from.
+     * @param theY The board row of the state rotated from.
+     * @param theDirection 0 to rotate clockwise, 1 counter-clockwise.
+     * @param theTail The end of the queue.
+     * @return The new end of the queue.
+     */
+    private int tryRotate(final BitBoard theBlocks, final int theFrom,
+                          final Rotation theRotation, final int theX, final int theY,
+                          final int theDirection, final int theTail) {
+        Rotation goal = theRotation.clockwise();
+        BoardCommand command = BoardCommand.ROTATE_CW;
+        if (theDirection == 1) {
+            goal = theRotation.counterClockwise();
+            command = BoardCommand.ROTATE_CCW;
+        }
+        final Point[] kicks =
+            KICKS[(myPiece.ordinal() * ROTATIONS + theRotation.ordinal()) * 2 + theDirection];
+        int tail = theTail;
+        for (final Point kick : kicks) {
+            final int x = theX + kick.x();
+            final int y = theY + kick.y();
+            if (theBlocks.fits(myPiece, goal, x, y)) {
+                tail = tryMove(theBlocks, theFrom, goal.ordinal(), x, y, command, theTail);
+                break;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Records a landing state unless a placement covering the same cells
+     * was already found.
+     * 
+     * @param theState The landing state.
+     * @param theRotation The rotation of the state.
+     * @param theX The board column of the state.
+     * @param theY The board row of the state.
+     */
+    private void addPlacement(final int theState, final Rotation theRotation,
+                              final int theX, final int theY) {
+        final long key = cellKey(theRotation, theX, theY);
+        boolean duplicate = false;
+        for (int i = 0; i < myCount && !duplicate; i++) {
+            duplicate = myKeys[i] == key;
+        }
+        if (!duplicate) {
+            myPlacements[myCount] = theState;
+            myKeys[myCount] = key;
+            myCount++;
+        }
+    }
+
+    /**
+     * Packs the cells a piece covers into a key that does not depend on the
+     * order of the blocks.
+     * 
+     * @param theRotation The rotation of the piece.
+     * @param theX The board column of the piece.
+     * @param theY The board row of the piece.
+     * @return The cell key.
+     */
+    private long cellKey(final Rotation theRotation, final int theX, final int theY) {
+        int a = cell(theRotation, theX, theY, 0);
+        int b = cell(theRotation, theX, theY, 1);
+        int c = cell(theRotation, theX, theY, 2);
+        int d = cell(theRotation, theX, theY, 3);
+        int swap;
+        // sorting network for four values
+        if (a > b) {
+            swap = a;
+            a = b;
+            b = swap;
+        }
+        if (c > d) {
+            swap = c;
+            c = d;
+            d = swap;
+        }
+        if (a > c) {
+            swap = a;
+            a = c;
+            c = swap;
+        }
+        if (b > d) {
+            swap = b;
+            b = d;
+            d = swap;
+        }
+        if (b > c) {
+            swap = b;
+            b = c;
+            c = swap;
+        }
+        return (long) a << (KEY_BITS * 3) | (long) b << (KEY_BITS * 2)
+               | (long) c << KEY_BITS | d;
+    }
+
+    /**
+     * Returns the padded cell index of one block of a piece.
+     * 
+     * @param theRotation The rotation of the piece.
+     * @param theX The board column of the piece.
+     * @param theY The board row of the piece.
+     * @param theBlock The block.
+     * @return The cell index.
+     */
+    private int cell(final Rotation theRotation, final int theX, final int theY,
+                     final int theBlock) {
+        return (theY + PieceTable.getCellY(myPiece, theRotation, theBlock) + PAD) * myXSpan
+               + theX + PieceTable.getCellX(myPiece, theRotation, theBlock) + PAD;
+    }
+
+    /**
+     * Tests if a position is inside the searched state space.
+     * 
+     * @param theX The board column.
+     * @param theY The board row.
+     * @return True if the position has a state.
+     */
+    private boolean inSpace(final int theX, final int theY) {
+        return theX >= -PAD && theX < myWidth + PAD && theY >= -PAD && theY < myHeight + PAD;
+    }
+
+    /**
+     * Returns the state number of a position.
+     * 
+     * @param theRot The rotation ordinal.
+     * @param theX The board column.
+     * @param theY The board row.
+     * @return The state number.
+     */
+    private int state(final int theRot, final int theX, final int theY) {
+        return (theRot * myYSpan + theY + PAD) * myXSpan + theX + PAD;
+    }
+
+    /**
+     * Tests if a state was queued.
+     * 
+     * @param theState The state.
+     * @return True if the state was queued.
+     */
+    private boolean isVisited(final int theState) {
+        return (myVisited[theState / WORD_BITS] & 1L << theState) != 0;
+    }
+
+    /**
+     * Marks a state as queued.
+     * 
+     * @param theState The state.
+     */
+    private void visit(final int theState) {
+        myVisited[theState / WORD_BITS] |= 1L << theState;
+    }
+
+    /**
+     * Returns the wall kicks a Board tries for a rotation.  The O piece
+     * only tries its own position.
+     * 
+     * @param thePiece The piece.
+     * @param theFrom The rotation before turning.
+     * @param theTo The rotation after turning.
+     * @return The offsets to try, in order.
+     */
+    private static Point[] kicks(final TetrisPiece thePiece, final Rotation theFrom,
+                                 final Rotation theTo) {
+        Point[] result = {new Point(0, 0)};
+        if (thePiece != TetrisPiece.O) {
+            result = WallKick.getWallKicks(thePiece, theFrom, theTo);
+        }
+        return result;
+    }
+
+}
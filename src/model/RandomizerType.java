@@ -0,0 +1,66 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * The kinds of PieceRandomizer a game can be dealt with.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public enum RandomizerType {
+
+    /**
+     * Every piece equally likely on every deal.
+     */
+    UNIFORM,
+
+    /**
+     * Shuffled bags of seven pieces.
+     */
+    BAG,
+
+    /**
+     * Avoids repeating recently dealt pieces.
+     */
+    HISTORY;
+
+    /**
+     * Creates a randomizer of this type.
+     * 
+     * @param theRandom The random source the randomizer will own.
+     * @return The new randomizer.
+     */
+    public PieceRandomizer create(final SplittableRandom theRandom) {
+        final PieceRandomizer result;
+        switch (this) {
+            case BAG:
+                result = new BagRandomizer(theRandom);
+                break;
+            case HISTORY:
+                result = new HistoryRandomizer(theRandom);
+                break;
+            default:
+                result = new UniformRandomizer(theRandom);
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a randomizer of this type with a fixed seed.
+     * 
+     * @param theSeed The seed of the piece sequence.
+     * @return The new randomizer.
+     */
+    public PieceRandomizer create(final long theSeed) {
+        return create(new SplittableRandom(theSeed));
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import model.Board.CompletedLines;
+
+/**
+ * Keeps the score, level and line count of a game.
+ * 
+ * Registered as a listener of a Board it scores every line clear, so the
+ * same rules apply to games shown in the GUI and games played headless.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public class ScoreKeeper extends BoardAdapter {
+
+    /**
+     * Default score for a block cleared.
+     */
+    private static final int DEFAULT_SCORE = 50;
+
+    /**
+     * Lines required to clear to advance a level.
+     */
+    private static final int LINES_PER_LEVEL = 10;
+
+    /**
+     * Level score multiplier.
+     */
+    private static final int LEVEL_MULTIPLIER = 10;
+
+    /**
+     * The score multiplier for clearing each number of lines at once.
+     */
+    private static final double[] LINE_MULTIPLIERS = {0, 1, 1.3, 1.6, 2.0};
+
+    /**
+     * The width of the row used to add a multiplier.
+     */
+    private final int myRowWidth;
+
+    /**
+     * The score of the current game.
+     */
+    private int myScore;
+
+    /**
+     * Current level of the game.
+     */
+    private int myLevel;
+
+    /**
+     * Total amount of lines cleared.
+     */
+    private int myTotalLines;
+
+    /**
+     * The lines left to clear until the level advances.
+     */
+    private int myLinesLeft;
+
+    /**
+     * Constructs a score keeper for a new game.
+     * 
+     * @param theRowWidth Width of a row in the game.
+     * @param theLevel The starting level of the game.
+     */
+    public ScoreKeeper(final int theRowWidth, final int theLevel) {
+        super();
+        myRowWidth = theRowWidth;
+        newGame(theLevel);
+    }
+
+    // public queries
+
+    /**
+     * Returns the score of the game.
+     * 
+     * @return The score.
+     */
+    public int getScore() {
+        return myScore;
+    }
+
+    /**
+     * Returns the current level of the game.
+     * 
+     * @return The level.
+     */
+    public int getLevel() {
+        return myLevel;
+    }
+
+    /**
+     * Returns the number of lines cleared in the game.
+     * 
+     * @return The total lines cleared.
+     */
+    public int getTotalLines() {
+        return myTotalLines;
+    }
+
+    // public commands
+
+    /**
+     * Sets the current level.
+     * 
+     * @param theLevel The level.
+     */
+    public void setLevel(final int theLevel) {
+        myLevel = theLevel;
+    }
+
+    /**
+     * Resets the score, level and lines cleared.
+     * 
+     * @param theLevel The new level of the game.
+     */
+    public final void newGame(final int theLevel) {
+        myScore = 0;
+        myLevel = theLevel;
+        myTotalLines = 0;
+        myLinesLeft = LINES_PER_LEVEL;
+    }
+
+    /**
+     * Scores lines cleared at once and advances the level when enough
+     * lines have been cleared.
+     * 
+     * @param theCount The number of lines cleared.
+     */
+    public void linesCleared(final int theCount) {
+        if (theCount < LINE_MULTIPLIERS.length) {
+            myScore += (int) (theCount * (DEFAULT_SCORE + LEVEL_MULTIPLIER * myLevel)
+                              * LINE_MULTIPLIERS[theCount] * myRowWidth);
+            myTotalLines += theCount;
+        }
+        myLinesLeft -= theCount;
+        if (myLinesLeft <= 0) {
+            myLevel += 1;
+            myLinesLeft += LINES_PER_LEVEL;
+        }
+    }
+
+    @Override
+    public void onLinesCleared(final CompletedLines theLines) {
+        linesCleared(theLines.getCompletedLines().size());
+    }
+
+}
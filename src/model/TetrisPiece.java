@@ -7,7 +7,7 @@
 package model;
 
 import java.awt.Color;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Enumeration of the TetrisPiece types.
@@ -61,9 +61,9 @@ public enum TetrisPiece {
     // Other class constants
 
     /**
-     * A Random Object.
+     * Alpha value of the color of a ghost piece.
      */
-    private static final Random RANDOM = new Random();
+    private static final int GHOST_ALPHA = 50;
 
     
     // instance fields
@@ -87,6 +87,11 @@ public enum TetrisPiece {
      */
     private final Color myColor;
 
+    /**
+     * Translucent color of the ghost of the TetrisPiece.
+     */
+    private final Color myGhostColor;
+
     /**
      * The TetrisPiece constructor.
      * 
@@ -100,6 +105,8 @@ public enum TetrisPiece {
         myWidth = theWidth;
         myHeight = theHeight;
         myColor = theColor;
+        myGhostColor = new Color(theColor.getRed(), theColor.getGreen(), theColor.getBlue(),
+                                 GHOST_ALPHA);
         myPoints = thePoints.clone();
     }
 
@@ -139,12 +146,23 @@ public enum TetrisPiece {
         return myColor;
     }
 
+    /**
+     * Return the translucent color of the ghost of the TetrisPiece.
+     * 
+     * @return The ghost color of the TetrisPiece.
+     */
+    public Color getGhostColor() {
+        return myGhostColor;
+    }
+
     /**
      * Get a random TetrisPiece.
+     * Uses a thread-local random source, so it may be called from any number
+     * of threads without contention.
      * 
      * @return a random TetrisPiece.
      */
     public static TetrisPiece getRandomPiece() {
-        return values()[RANDOM.nextInt(values().length)];
+        return values()[ThreadLocalRandom.current().nextInt(values().length)];
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deals each piece independently with equal probability.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class UniformRandomizer implements PieceRandomizer {
+
+    /**
+     * The TetrisPiece types.
+     */
+    private static final TetrisPiece[] PIECES = TetrisPiece.values();
+
+    /**
+     * The random source.
+     */
+    private final SplittableRandom myRandom;
+
+    /**
+     * Constructs a randomizer with a fixed seed.
+     * 
+     * @param theSeed The seed of the piece sequence.
+     */
+    public UniformRandomizer(final long theSeed) {
+        this(new SplittableRandom(theSeed));
+    }
+
+    /**
+     * Constructs a randomizer drawing from a random source.
+     * The source must not be shared with another thread.
+     * 
+     * @param theRandom The random source.
+     */
+    public UniformRandomizer(final SplittableRandom theRandom) {
+        myRandom = theRandom;
+    }
+
+    @Override
+    public TetrisPiece next() {
+        return PIECES[myRandom.nextInt(PIECES.length)];
+    }
+
+}
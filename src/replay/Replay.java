@@ -0,0 +1,279 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package replay;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import model.BoardCommand;
+import model.RandomizerType;
+
+/**
+ * A recorded game: how its pieces were dealt and every command performed
+ * on its board, with the engine tick of each.
+ * 
+ * A Board of the same size, given a randomizer of the same type and seed
+ * and cleared, deals the same pieces; performing the same commands in order
+ * then reproduces the game exactly.  The ticks only pace playback, and the
+ * starting level lets the score be kept as it was.
+ * 
+ * The binary form is a header followed by one varint per command holding
+ * its tick delta and ordinal, under two bytes a command in play; see
+ * ReplayFormat.  ReplayWriter streams the same form while a game is played.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class Replay {
+
+    /**
+     * The first bytes of a replay: "TRPL".
+     */
+    public static final int MAGIC = 0x5452504C;
+
+    /**
+     * The version of the binary form.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * The commands indexed by ordinal.
+     */
+    private static final BoardCommand[] COMMANDS = BoardCommand.values();
+
+    /**
+     * The commands room is made for at first.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * The type of randomizer that dealt the pieces.
+     */
+    private final RandomizerType myRandomizer;
+
+    /**
+     * The seed of the randomizer.
+     */
+    private final long mySeed;
+
+    /**
+     * The width of the board.
+     */
+    private final int myWidth;
+
+    /**
+     * The height of the board.
+     */
+    private final int myHeight;
+
+    /**
+     * The level the game started at.
+     */
+    private final int myLevel;
+
+    /**
+     * The tick of each command.
+     */
+    private long[] myTicks;
+
+    /**
+     * The ordinal of each command.
+     */
+    private byte[] myCommands;
+
+    /**
+     * The number of commands.
+     */
+    private int mySize;
+
+    /**
+     * Constructs an empty replay.
+     * 
+     * @param theRandomizer The type of randomizer that deals the pieces.
+     * @param theSeed The seed of the randomizer.
+     * @param theWidth The width of the board.
+     * @param theHeight The height of the board.
+     * @param theLevel The level the game started at.
+     */
+    public Replay(final RandomizerType theRandomizer, final long theSeed,
+                  final int theWidth, final int theHeight, final int theLevel) {
+        myRandomizer = theRandomizer;
+        mySeed = theSeed;
+        myWidth = theWidth;
+        myHeight = theHeight;
+        myLevel = theLevel;
+        myTicks = new long[INITIAL_CAPACITY];
+        myCommands = new byte[INITIAL_CAPACITY];
+    }
+
+    // public queries
+
+    /**
+     * Returns the type of randomizer that dealt the pieces.
+     * 
+     * @return The randomizer type.
+     */
+    public RandomizerType getRandomizer() {
+        return myRandomizer;
+    }
+
+    /**
+     * Returns the seed of the randomizer.
+     * 
+     * @return The seed.
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Returns the width of the board.
+     * 
+     * @return The width.
+     */
+    public int getWidth() {
+        return myWidth;
+    }
+
+    /**
+     * Returns the height of the board.
+     * 
+     * @return The height.
+     */
+    public int getHeight() {
+        return myHeight;
+    }
+
+    /**
+     * Returns the level the game started at.
+     * 
+     * @return The starting level.
+     */
+    public int getLevel() {
+        return myLevel;
+    }
+
+    /**
+     * Returns the number of commands recorded.
+     * 
+     * @return The command count.
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * Returns the tick of a command.
+     * 
+     * @param theIndex The index of the command.
+     * @return The engine tick the command was performed in.
+     */
+    public long getTick(final int theIndex) {
+        checkIndex(theIndex);
+        return myTicks[theIndex];
+    }
+
+    /**
+     * Returns a command.
+     * 
+     * @param theIndex The index of the command.
+     * @return The command.
+     */
+    public BoardCommand getCommand(final int theIndex) {
+        checkIndex(theIndex);
+        return COMMANDS[myCommands[theIndex]];
+    }
+
+    /**
+     * Writes the binary form of the replay.
+     * 
+     * @param theOutput The stream to write to; left open.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(final OutputStream theOutput) throws IOException {
+        theOutput.write(ReplayFormat.header(myRandomizer, mySeed, myWidth, myHeight,
+                                           myLevel));
+        final byte[] buffer = new byte[ReplayFormat.MAX_VARINT_BYTES * INITIAL_CAPACITY];
+        int length = 0;
+        long last = 0;
+        for (int i = 0; i < mySize; i++) {
+            if (length > buffer.length - ReplayFormat.MAX_VARINT_BYTES) {
+                theOutput.write(buffer, 0, length);
+                length = 0;
+            }
+            length += ReplayFormat.encode(myTicks[i] - last, COMMANDS[myCommands[i]],
+                                          buffer, length, -1);
+            last = myTicks[i];
+        }
+        theOutput.write(buffer, 0, length);
+        theOutput.flush();
+    }
+
+    /**
+     * Reads the binary form of a replay.  A replay cut short, as by a
+     * crash while it was streamed, ends at its last whole command.
+     * 
+     * @param theInput The stream to read from; left open.
+     * @return The replay.
+     * @throws IOException if the stream cannot be read or does not hold a
+     *         replay.
+     */
+    public static Replay read(final InputStream theInput) throws IOException {
+        final DataInputStream in = new DataInputStream(theInput);
+        final Replay result = ReplayFormat.readHeader(in);
+        long tick = 0;
+        long varint = ReplayFormat.readCommand(in);
+        while (varint >= 0) {
+            tick += varint >>> ReplayFormat.OP_BITS;
+            result.add(tick, ReplayFormat.command(varint));
+            varint = ReplayFormat.readCommand(in);
+        }
+        return result;
+    }
+
+    // public commands
+
+    /**
+     * Records a command.
+     * 
+     * @param theTick The engine tick the command was performed in.
+     * @param theCommand The command.
+     */
+    public void add(final long theTick, final BoardCommand theCommand) {
+        if (mySize == myTicks.length) {
+            myTicks = Arrays.copyOf(myTicks, mySize * 2);
+            myCommands = Arrays.copyOf(myCommands, mySize * 2);
+        }
+        myTicks[mySize] = theTick;
+        myCommands[mySize] = (byte) theCommand.ordinal();
+        mySize++;
+    }
+
+    // private helper methods
+
+    /**
+     * Checks that a command exists.
+     * 
+     * @param theIndex The index of the command.
+     * @throws IndexOutOfBoundsException if there is no such command.
+     */
+    private void checkIndex(final int theIndex) {
+        if (theIndex < 0 || theIndex >= mySize) {
+            throw new IndexOutOfBoundsException("Command " + theIndex + " of " + mySize);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Replay[" + myRandomizer + " seed " + mySeed + ", " + myWidth + "x" + myHeight
+               + ", level " + myLevel + ", " + mySize + " commands]";
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import model.BoardCommand;
+import model.RandomizerType;
+
+/**
+ * The binary form of a replay, shared by Replay and ReplayWriter.
+ * 
+ * A replay is a fixed header followed by one varint per command, up to the
+ * end of the file:
+ * <pre>
+ *   int    Replay.MAGIC
+ *   byte   Replay.VERSION
+ *   short  board width
+ *   short  board height
+ *   byte   randomizer type ordinal
+ *   long   randomizer seed
+ *   short  starting level
+ *   then per command: varint (tick delta &lt;&lt; OP_BITS | command ordinal)
+ * </pre>
+ * The tick delta is the number of ticks since the previous command, or
+ * since tick 0 for the first.  A varint holds 7 bits per byte, low bits
+ * first, with the high bit set on every byte but the last, so a command
+ * within 15 ticks of the previous one takes one byte and a gravity step up
+ * to 2047 ticks later takes two.
+ * 
+ * There is no command count, so a replay can be written as it is played;
+ * a file cut short by a crash ends at its last whole command.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+final class ReplayFormat {
+
+    /**
+     * The low bits of a command varint holding the command ordinal.
+     */
+    static final int OP_BITS = 3;
+
+    /**
+     * Selects the command ordinal of a command varint.
+     */
+    static final int OP_MASK = (1 << OP_BITS) - 1;
+
+    /**
+     * The most bytes a varint takes.
+     */
+    static final int MAX_VARINT_BYTES = 10;
+
+    /**
+     * The bits of a value held by each byte of a varint.
+     */
+    private static final int VARINT_BITS = 7;
+
+    /**
+     * Selects the value bits of a varint byte.
+     */
+    private static final int VARINT_MASK = (1 << VARINT_BITS) - 1;
+
+    /**
+     * Marks a varint byte that is followed by another.
+     */
+    private static final int MORE = 1 << VARINT_BITS;
+
+    /**
+     * The commands indexed by ordinal.
+     */
+    private static final BoardCommand[] COMMANDS = BoardCommand.values();
+
+    /**
+     * The randomizer types indexed by ordinal.
+     */
+    private static final RandomizerType[] RANDOMIZERS = RandomizerType.values();
+
+    /**
+     * Private constructor to inhibit external instantiation.
+     */
+    private ReplayFormat() {
+        // do nothing
+    }
+
+    /**
+     * Encodes the header of a replay.
+     * 
+     * @param theRandomizer The type of randomizer that deals the pieces.
+     * @param theSeed The seed of the randomizer.
+     * @param theWidth The width of the board.
+     * @param theHeight The height of the board.
+     * @param theLevel The level the game started at.
+     * @return The header bytes.
+     */
+    static byte[] header(final RandomizerType theRandomizer, final long theSeed,
+                         final int theWidth, final int theHeight, final int theLevel) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(Replay.MAGIC);
+            out.writeByte(Replay.VERSION);
+            out.writeShort(theWidth);
+            out.writeShort(theHeight);
+            out.writeByte(theRandomizer.ordinal());
+            out.writeLong(theSeed);
+            out.writeShort(theLevel);
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the header of a replay.
+     * 
+     * @param theInput The stream, positioned at the start of the replay.
+     * @return An empty replay with the header's settings.
+     * @throws IOException if the stream cannot be read or does not start
+     *         with a replay header.
+     */
+    static Replay readHeader(final DataInputStream theInput) throws IOException {
+        if (theInput.readInt() != Replay.MAGIC) {
+            throw new IOException("Not a replay");
+        }
+        final int version = theInput.readByte();
+        if (version != Replay.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        final int width = theInput.readShort();
+        final int height = theInput.readShort();
+        final int randomizer = theInput.readByte();
+        if (randomizer < 0 || randomizer >= RANDOMIZERS.length) {
+            throw new IOException("Corrupt replay: no randomizer " + randomizer);
+        }
+        final long seed = theInput.readLong();
+        return new Replay(RANDOMIZERS[randomizer], seed, width, height, theInput.readShort());
+    }
+
+    /**
+     * Encodes a command.  Negative tick deltas, from a clock reset during
+     * a game, are recorded as zero.
+     * 
+     * @param theDelta The ticks since the previous command.
+     * @param theCommand The command.
+     * @param theBuffer Receives the bytes.
+     * @param thePosition Where the first byte goes.
+     * @param theMask Applied to each byte position, so the bytes may wrap
+     *        around a ring buffer; -1 for none.
+     * @return The number of bytes written, at most MAX_VARINT_BYTES.
+     */
+    static int encode(final long theDelta, final BoardCommand theCommand,
+                      final byte[] theBuffer, final long thePosition, final int theMask) {
+        long value = Math.max(0, theDelta) << OP_BITS | theCommand.ordinal();
+        int result = 0;
+        while ((value & ~VARINT_MASK) != 0) {
+            theBuffer[(int) (thePosition + result) & theMask] =
+                (byte) (value & VARINT_MASK | MORE);
+            value >>>= VARINT_BITS;
+            result++;
+        }
+        theBuffer[(int) (thePosition + result) & theMask] = (byte) value;
+        return result + 1;
+    }
+
+    /**
+     * Reads the next command varint.
+     * 
+     * @param theInput The stream, positioned at a command.
+     * @return The varint, or -1 at the end of the replay, including a
+     *         command cut short.
+     * @throws IOException if the stream cannot be read or the varint is
+     *         too long or negative, as only a damaged file holds.
+     */
+    static long readCommand(final DataInputStream theInput) throws IOException {
+        long result = 0;
+        int shift = 0;
+        int next = MORE;
+        boolean whole = true;
+        try {
+            while ((next & MORE) != 0) {
+                next = theInput.readUnsignedByte();
+                // the tenth byte of a long holds its top bit alone, and ends it
+                if (shift + VARINT_BITS > Long.SIZE && (next & ~1) != 0) {
+                    throw new IOException("Corrupt replay: varint too long");
+                }
+                result |= (long) (next & VARINT_MASK) << shift;
+                shift += VARINT_BITS;
+            }
+        } catch (final EOFException e) {
+            whole = false;
+        }
+        if (!whole) {
+            result = -1;
+        } else if (result < 0) {
+            throw new IOException("Corrupt replay: varint too long");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the command of a command varint.
+     * 
+     * @param theVarint The varint.
+     * @return The command.
+     * @throws IOException if there is no command with the varint's ordinal.
+     */
+    static BoardCommand command(final long theVarint) throws IOException {
+        final int ordinal = (int) theVarint & OP_MASK;
+        if (ordinal >= COMMANDS.length) {
+            throw new IOException("Corrupt replay: no command " + ordinal);
+        }
+        return COMMANDS[ordinal];
+    }
+
+}
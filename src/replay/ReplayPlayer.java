@@ -0,0 +1,149 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import model.Board;
+import model.ScoreKeeper;
+
+/**
+ * Plays a Replay back on a board.
+ * 
+ * The player can run the whole game at once, or be advanced tick by tick
+ * to play it at the speed it was recorded.  Commands are performed
+ * directly on the board, so a GameEngine driving the same board must be
+ * stopped during playback.
+ * 
+ * Run as a program, it plays replay files headlessly at full speed, which
+ * reproduces a recorded bug or times a recorded game:
+ * <pre>
+ *   ReplayPlayer [-n repetitions] file...
+ * </pre>
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class ReplayPlayer {
+
+    /**
+     * Nanoseconds in one millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The game being played.
+     */
+    private final Replay myReplay;
+
+    /**
+     * The board the game is played on.
+     */
+    private final Board myBoard;
+
+    /**
+     * The next command to perform.
+     */
+    private int myNext;
+
+    /**
+     * Constructs a player.
+     * 
+     * @param theReplay The game to play.
+     * @param theBoard The board to play it on.
+     * @throws IllegalArgumentException if the board is not the size the
+     *         game was recorded on.
+     */
+    public ReplayPlayer(final Replay theReplay, final Board theBoard) {
+        if (theBoard.getWidth() != theReplay.getWidth()
+            || theBoard.getHeight() != theReplay.getHeight()) {
+            throw new IllegalArgumentException("The replay needs a " + theReplay.getWidth()
+                                               + "x" + theReplay.getHeight() + " board");
+        }
+        myReplay = theReplay;
+        myBoard = theBoard;
+    }
+
+    /**
+     * Returns whether every command has been performed.
+     * 
+     * @return True if the game has been played to its end.
+     */
+    public boolean isFinished() {
+        return myNext >= myReplay.size();
+    }
+
+    /**
+     * Deals the recorded pieces to the board and starts a new game on it.
+     */
+    public void start() {
+        myBoard.setRandomizer(myReplay.getRandomizer().create(myReplay.getSeed()));
+        myNext = 0;
+        myBoard.clear();
+    }
+
+    /**
+     * Performs every command recorded up to and including a tick.
+     * 
+     * @param theTick The tick to play to.
+     * @return True if commands remain after the tick.
+     */
+    public boolean advanceTo(final long theTick) {
+        while (!isFinished() && myReplay.getTick(myNext) <= theTick) {
+            myReplay.getCommand(myNext).apply(myBoard);
+            myNext++;
+        }
+        return !isFinished();
+    }
+
+    /**
+     * Plays the whole game from the start.
+     */
+    public void playAll() {
+        start();
+        advanceTo(Long.MAX_VALUE);
+    }
+
+    /**
+     * Plays replay files at full speed and prints the outcome of each.
+     * 
+     * @param theArgs Optionally -n and a repetition count, then the files.
+     * @throws IOException if a file cannot be read.
+     */
+    public static void main(final String... theArgs) throws IOException {
+        int repetitions = 1;
+        int first = 0;
+        if (theArgs.length > 1 && "-n".equals(theArgs[0])) {
+            repetitions = Integer.parseInt(theArgs[1]);
+            first = 2;
+        }
+        for (int i = first; i < theArgs.length; i++) {
+            final Replay replay;
+            try (InputStream in = Files.newInputStream(Paths.get(theArgs[i]))) {
+                replay = Replay.read(in);
+            }
+            final Board board = new Board(replay.getWidth(), replay.getHeight());
+            final ScoreKeeper score = new ScoreKeeper(board.getWidth(), 1);
+            board.addBoardListener(score);
+            final ReplayPlayer player = new ReplayPlayer(replay, board);
+            final long start = System.nanoTime();
+            for (int run = 0; run < repetitions; run++) {
+                score.newGame(1);
+                player.playAll();
+            }
+            final double millis = (System.nanoTime() - start) / NANOS_PER_MILLI / repetitions;
+            System.out.printf(Locale.ROOT, "%s: %s, %d lines, game over %b, %.3f ms%n",
+                              theArgs[i], replay, score.getTotalLines(), board.isGameOver(),
+                              millis);
+        }
+    }
+
+}
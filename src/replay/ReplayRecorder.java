@@ -0,0 +1,242 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package replay;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import model.Board;
+import model.BoardCommand;
+import model.CommandListener;
+import model.RandomizerType;
+
+/**
+ * Records the games played on a board.
+ * 
+ * The recorder listens to the GameEngine driving the board.  Before each
+ * game it gives the board a freshly seeded randomizer, so the game can be
+ * dealt again, then records every command the engine performs.  Commands
+ * that bypass the engine are not recorded.
+ * 
+ * Given a directory, the recorder instead streams each game to a file there
+ * through a ReplayWriter as it is played, so every game is kept without
+ * holding up the game thread.  A streamed game is not also kept in memory,
+ * so recording its commands allocates nothing; write copies its file.  The
+ * writers of ended games are kept until takeFailures has reported whether
+ * their files hold the whole game.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class ReplayRecorder implements CommandListener {
+
+    /**
+     * The name of a streamed game's file, given its seed.
+     */
+    private static final String FILE_NAME = "game-%016x.replay";
+
+    /**
+     * The board being recorded.
+     */
+    private final Board myBoard;
+
+    /**
+     * The type of randomizer each game is dealt with.
+     */
+    private final RandomizerType myRandomizer;
+
+    /**
+     * Picks the seed of each game.
+     */
+    private final SplittableRandom mySeeds;
+
+    /**
+     * The writers of ended games whose files may not yet be closed.
+     */
+    private final List<ReplayWriter> myEndedWriters;
+
+    /**
+     * The game being recorded, or null before the first game or if the
+     * game is streamed.
+     */
+    private Replay myReplay;
+
+    /**
+     * The directory each game is streamed to, or null.
+     */
+    private Path myDirectory;
+
+    /**
+     * Streams the game being recorded, or null.
+     */
+    private ReplayWriter myWriter;
+
+    /**
+     * The file the last streamed game went to, or null.
+     */
+    private Path myStreamedPath;
+
+    /**
+     * Constructs a recorder.
+     * 
+     * @param theBoard The board being recorded.
+     * @param theRandomizer The type of randomizer each game is dealt with.
+     */
+    public ReplayRecorder(final Board theBoard, final RandomizerType theRandomizer) {
+        myBoard = theBoard;
+        myRandomizer = theRandomizer;
+        mySeeds = new SplittableRandom();
+        myEndedWriters = new ArrayList<ReplayWriter>();
+    }
+
+    // public queries
+
+    /**
+     * Returns the game being recorded, if it is kept in memory.
+     * 
+     * @return The replay of the current game, or null before the first or
+     *         if the game is streamed.
+     */
+    public Replay getReplay() {
+        return myReplay;
+    }
+
+    /**
+     * Returns the writer streaming the game being recorded.
+     * 
+     * @return The writer, or null if games are not streamed or the game
+     *         has ended.
+     */
+    public ReplayWriter getWriter() {
+        return myWriter;
+    }
+
+    /**
+     * Writes the binary form of the game recorded last.  A streamed game is
+     * copied from its file, which holds the game up to the writer's last
+     * drain if it is still being played.
+     * 
+     * @param theOutput The stream to write to; left open.
+     * @throws IOException if there is no game, or it cannot be read or
+     *         written.
+     */
+    public void write(final OutputStream theOutput) throws IOException {
+        if (myReplay != null) {
+            myReplay.write(theOutput);
+        } else if (myStreamedPath != null) {
+            Files.copy(myStreamedPath, theOutput);
+            theOutput.flush();
+        } else {
+            throw new IOException("No game has been recorded");
+        }
+    }
+
+    // public commands
+
+    /**
+     * Sets the directory games are streamed to, from the next game on.
+     * 
+     * @param theDirectory The directory, or null to stream no games.
+     */
+    public void setDirectory(final Path theDirectory) {
+        myDirectory = theDirectory;
+    }
+
+    /**
+     * Starts recording a new game.  Must be called before the board is
+     * cleared for the game, on the thread driving the board.
+     * 
+     * @param theLevel The level the game starts at.
+     * @return The seed the game is dealt with.
+     */
+    public long startGame(final int theLevel) {
+        endGame();
+        final long seed = mySeeds.nextLong();
+        myBoard.setRandomizer(myRandomizer.create(seed));
+        if (myDirectory == null) {
+            myReplay = new Replay(myRandomizer, seed, myBoard.getWidth(), myBoard.getHeight(),
+                                  theLevel);
+            myStreamedPath = null;
+        } else {
+            myReplay = null;
+            myStreamedPath = myDirectory.resolve(String.format(FILE_NAME, seed));
+            myWriter = new ReplayWriter(myStreamedPath, myRandomizer, seed,
+                                        myBoard.getWidth(), myBoard.getHeight(), theLevel);
+        }
+        return seed;
+    }
+
+    /**
+     * Stops streaming the game being recorded.  Its writer closes the file
+     * in the background; see takeFailures.
+     */
+    public void endGame() {
+        if (myWriter != null) {
+            myWriter.close();
+            myEndedWriters.add(myWriter);
+            myWriter = null;
+        }
+    }
+
+    /**
+     * Ends the game being recorded and waits for the writer thread of every
+     * streamed game to close its file.  Called before the program exits,
+     * since the writer threads are daemons.
+     * 
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void finish() throws InterruptedException {
+        endGame();
+        for (final ReplayWriter writer : myEndedWriters) {
+            try {
+                writer.awaitClosed();
+            } catch (final IOException e) {
+                // reported by takeFailures
+            }
+        }
+    }
+
+    /**
+     * Returns the failures of the streamed games that have ended since the
+     * last call and whose files fell short, and forgets their writers.  A
+     * writer still closing its file is kept for the next call, unless it
+     * has already failed.
+     * 
+     * @return The failures, possibly none.
+     */
+    public List<IOException> takeFailures() {
+        final List<IOException> result = new ArrayList<IOException>();
+        final Iterator<ReplayWriter> writers = myEndedWriters.iterator();
+        while (writers.hasNext()) {
+            final ReplayWriter writer = writers.next();
+            final IOException failure = writer.getFailure();
+            if (failure != null) {
+                result.add(failure);
+                writers.remove();
+            } else if (writer.isDone()) {
+                writers.remove();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void onCommand(final long theTick, final BoardCommand theCommand) {
+        if (myWriter != null) {
+            myWriter.add(theTick, theCommand);
+        } else if (myReplay != null) {
+            myReplay.add(theTick, theCommand);
+        }
+    }
+
+}
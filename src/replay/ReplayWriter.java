@@ -0,0 +1,308 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import model.BoardCommand;
+import model.RandomizerType;
+
+/**
+ * Streams a game to a replay file while it is played.
+ * 
+ * The game thread encodes each command into a preallocated ring of bytes
+ * and returns; a writer thread of its own drains the ring to a FileChannel
+ * every FLUSH_MILLIS, or sooner once the ring is half full.  Recording a
+ * command allocates nothing and never waits on the disk.  If the disk
+ * falls so far behind that the ring fills, later commands are dropped and
+ * the file holds the game up to that point.
+ * 
+ * The file is in the binary form Replay reads, and ends at its last whole
+ * command even if the program dies mid-game.  The writer thread is a daemon,
+ * so a program that exits should first call awaitClosed, or the commands
+ * since the last drain are lost.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class ReplayWriter implements AutoCloseable {
+
+    /**
+     * The default size of the ring in bytes, minutes of play.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * The longest the writer thread waits between drains, in milliseconds.
+     */
+    public static final long FLUSH_MILLIS = 100;
+
+    /**
+     * The encoded commands not yet written, indexed by position & myMask.
+     */
+    private final byte[] myRing;
+
+    /**
+     * Selects a position's index in the ring.
+     */
+    private final int myMask;
+
+    /**
+     * Views the ring for writing to the channel.
+     */
+    private final ByteBuffer myBuffer;
+
+    /**
+     * The header of the file.
+     */
+    private final ByteBuffer myHeader;
+
+    /**
+     * The file written to.
+     */
+    private final Path myPath;
+
+    /**
+     * Drains the ring to the file.
+     */
+    private final Thread myThread;
+
+    /**
+     * The position after the last byte recorded; written by the game thread.
+     */
+    private volatile long myHead;
+
+    /**
+     * The position after the last byte written; written by the writer thread.
+     */
+    private volatile long myTail;
+
+    /**
+     * Whether close has been called.
+     */
+    private volatile boolean myClosed;
+
+    /**
+     * Whether a command has been dropped for want of room.
+     */
+    private volatile boolean myOverflowed;
+
+    /**
+     * The failure of the writer thread, or null.
+     */
+    private volatile IOException myFailure;
+
+    /**
+     * The tick of the last command recorded.
+     */
+    private long myLastTick;
+
+    /**
+     * Constructs a writer with the default capacity and starts its thread.
+     * 
+     * @param thePath The file to write; replaced if it exists.
+     * @param theRandomizer The type of randomizer that deals the pieces.
+     * @param theSeed The seed of the randomizer.
+     * @param theWidth The width of the board.
+     * @param theHeight The height of the board.
+     * @param theLevel The level the game starts at.
+     */
+    public ReplayWriter(final Path thePath, final RandomizerType theRandomizer,
+                        final long theSeed, final int theWidth, final int theHeight,
+                        final int theLevel) {
+        this(thePath, theRandomizer, theSeed, theWidth, theHeight, theLevel,
+             DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a writer and starts its thread.
+     * 
+     * @param thePath The file to write; replaced if it exists.
+     * @param theRandomizer The type of randomizer that deals the pieces.
+     * @param theSeed The seed of the randomizer.
+     * @param theWidth The width of the board.
+     * @param theHeight The height of the board.
+     * @param theLevel The level the game starts at.
+     * @param theCapacity The size of the ring in bytes, a power of two.
+     * @throws IllegalArgumentException if the capacity is not a power of two
+     *         or is too small to hold a command.
+     */
+    public ReplayWriter(final Path thePath, final RandomizerType theRandomizer,
+                        final long theSeed, final int theWidth, final int theHeight,
+                        final int theLevel, final int theCapacity) {
+        if (Integer.bitCount(theCapacity) != 1
+            || theCapacity < 2 * ReplayFormat.MAX_VARINT_BYTES) {
+            throw new IllegalArgumentException("Bad ring capacity " + theCapacity);
+        }
+        myRing = new byte[theCapacity];
+        myMask = theCapacity - 1;
+        myBuffer = ByteBuffer.wrap(myRing);
+        myHeader = ByteBuffer.wrap(ReplayFormat.header(theRandomizer, theSeed,
+                                                       theWidth, theHeight, theLevel));
+        myPath = thePath;
+        myThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "Replay writer " + thePath.getFileName());
+        myThread.setDaemon(true);
+        myThread.start();
+    }
+
+    // public queries
+
+    /**
+     * Returns the file written to.
+     * 
+     * @return The path of the replay.
+     */
+    public Path getPath() {
+        return myPath;
+    }
+
+    /**
+     * Returns whether commands have been dropped because the ring was full.
+     * 
+     * @return True if the file ends before the game does.
+     */
+    public boolean isOverflowed() {
+        return myOverflowed;
+    }
+
+    /**
+     * Returns whether the writer thread has closed the file, after close or
+     * a failure.
+     * 
+     * @return True if nothing more will be written.
+     */
+    public boolean isDone() {
+        return !myThread.isAlive();
+    }
+
+    /**
+     * Returns why the file does not hold the whole game, if it does not:
+     * the file could not be written, or commands were dropped.
+     * 
+     * @return The failure so far, or null.
+     */
+    public IOException getFailure() {
+        IOException result = myFailure;
+        if (result == null && myOverflowed) {
+            result = new IOException("Replay " + myPath + " overflowed; the game is cut short");
+        }
+        return result;
+    }
+
+    // public commands
+
+    /**
+     * Records a command.  Called on the game thread; allocates nothing and
+     * does not block.  Ignored once the writer is closed or has overflowed.
+     * 
+     * @param theTick The engine tick the command was performed in.
+     * @param theCommand The command.
+     */
+    public void add(final long theTick, final BoardCommand theCommand) {
+        final long head = myHead;
+        final long used = head - myTail;
+        if (used > myRing.length - ReplayFormat.MAX_VARINT_BYTES) {
+            myOverflowed = true;
+        } else if (!myClosed && !myOverflowed) {
+            final int length =
+                ReplayFormat.encode(theTick - myLastTick, theCommand, myRing, head, myMask);
+            myLastTick = theTick;
+            myHead = head + length;
+            if (used + length > myRing.length / 2) {
+                LockSupport.unpark(myThread);
+            }
+        }
+    }
+
+    /**
+     * Asks the writer thread to write what has been recorded and close the
+     * file.  Returns at once; see awaitClosed.  Called on the game thread,
+     * so no command races the final drain.
+     */
+    @Override
+    public void close() {
+        myClosed = true;
+        LockSupport.unpark(myThread);
+    }
+
+    /**
+     * Closes the writer and waits for the file to be closed.
+     * 
+     * @throws IOException if the file could not be written, or commands
+     *         were dropped.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void awaitClosed() throws IOException, InterruptedException {
+        close();
+        myThread.join();
+        final IOException failure = getFailure();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // private helper methods
+
+    /**
+     * Runs the writer thread: writes the header, then drains the ring until
+     * the writer is closed.
+     */
+    private void drain() {
+        try (FileChannel channel = FileChannel.open(myPath, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            writeFully(channel, myHeader);
+            boolean closing = false;
+            while (!closing) {
+                closing = myClosed;
+                final long head = myHead;
+                final long tail = myTail;
+                if (head != tail) {
+                    final int start = (int) tail & myMask;
+                    final int end = (int) Math.min(head - tail, myRing.length - start) + start;
+                    myBuffer.limit(end).position(start);
+                    writeFully(channel, myBuffer);
+                    myBuffer.limit((int) (head - tail) - (end - start)).position(0);
+                    writeFully(channel, myBuffer);
+                    myTail = head;
+                }
+                if (!closing) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(FLUSH_MILLIS));
+                }
+            }
+        } catch (final IOException e) {
+            myFailure = e;
+            myClosed = true;
+        }
+    }
+
+    /**
+     * Writes all the remaining bytes of a buffer.
+     * 
+     * @param theChannel The channel to write to.
+     * @param theBuffer The bytes to write.
+     * @throws IOException if the channel cannot be written.
+     */
+    private static void writeFully(final FileChannel theChannel, final ByteBuffer theBuffer)
+        throws IOException {
+        while (theBuffer.hasRemaining()) {
+            theChannel.write(theBuffer);
+        }
+    }
+
+}
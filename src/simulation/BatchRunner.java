@@ -0,0 +1,273 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.Board;
+import model.Board.PieceLocked;
+import model.BoardAdapter;
+import model.GameEngine;
+import model.RandomizerType;
+import model.ScoreKeeper;
+
+/**
+ * Plays batches of independent, seeded games in parallel and summarizes
+ * the results.
+ * 
+ * Each game gets its own Board, GameEngine and random source, so games
+ * share nothing and the batch scales with the number of cores.  Game i of
+ * a batch is always played with seed theSeed + i, so any game can be
+ * replayed on its own.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class BatchRunner {
+
+    /**
+     * The default longest game in engine ticks.
+     */
+    public static final long DEFAULT_MAX_TICKS = 1000000;
+
+    /**
+     * The most games a task plays before splitting.
+     */
+    private static final int GAMES_PER_TASK = 4;
+
+    /**
+     * The default number of games played by main().
+     */
+    private static final int DEFAULT_GAMES = 1000;
+
+    /**
+     * The policy playing the games.
+     */
+    private final Policy myPolicy;
+
+    /**
+     * The randomizer dealing the pieces of each game.
+     */
+    private final RandomizerType myRandomizer;
+
+    /**
+     * The number of engine ticks between gravity steps.
+     */
+    private final int myGravity;
+
+    /**
+     * The longest game in engine ticks.
+     */
+    private final long myMaxTicks;
+
+    /**
+     * Constructs a runner with the default randomizer, gravity and game
+     * length.
+     * 
+     * @param thePolicy The policy playing the games.
+     */
+    public BatchRunner(final Policy thePolicy) {
+        this(thePolicy, RandomizerType.UNIFORM, GameEngine.DEFAULT_GRAVITY,
+             DEFAULT_MAX_TICKS);
+    }
+
+    /**
+     * Constructs a runner.
+     * 
+     * @param thePolicy The policy playing the games.
+     * @param theRandomizer The randomizer dealing the pieces of each game.
+     * @param theGravity The number of engine ticks between gravity steps.
+     * @param theMaxTicks The longest game in engine ticks.
+     */
+    public BatchRunner(final Policy thePolicy, final RandomizerType theRandomizer,
+                       final int theGravity, final long theMaxTicks) {
+        myPolicy = thePolicy;
+        myRandomizer = theRandomizer;
+        myGravity = theGravity;
+        myMaxTicks = theMaxTicks;
+    }
+
+    /**
+     * Plays a batch of games on the common fork/join pool.
+     * 
+     * @param theGames The number of games to play.
+     * @param theSeed The seed of the first game.
+     * @return The summary of the games.
+     */
+    public BatchSummary run(final int theGames, final long theSeed) {
+        return run(theGames, theSeed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays a batch of games on a fork/join pool.
+     * 
+     * @param theGames The number of games to play.
+     * @param theSeed The seed of the first game.
+     * @param thePool The pool to play the games on.
+     * @return The summary of the games.
+     */
+    public BatchSummary run(final int theGames, final long theSeed,
+                            final ForkJoinPool thePool) {
+        return thePool.invoke(createTask(theGames, theSeed));
+    }
+
+    /**
+     * Creates the task playing a batch of games, so batches can be forked
+     * together as part of a larger fork/join computation.
+     * 
+     * @param theGames The number of games to play.
+     * @param theSeed The seed of the first game.
+     * @return The task; its result is the summary of the games.
+     */
+    public RecursiveTask<BatchSummary> createTask(final int theGames, final long theSeed) {
+        return new BatchTask(theSeed, theSeed + theGames);
+    }
+
+    /**
+     * Plays a single game on the calling thread.
+     * 
+     * @param theSeed The seed of the game.
+     * @return The result of the game.
+     */
+    public GameResult play(final long theSeed) {
+        final SplittableRandom random = new SplittableRandom(theSeed);
+        final Board board = new Board();
+        board.setRandomizer(myRandomizer.create(random.split()));
+        final GameEngine engine = new GameEngine(board);
+        engine.setGravity(myGravity);
+        final ScoreKeeper score = new ScoreKeeper(board.getWidth(), 1);
+        final PieceCounter pieces = new PieceCounter();
+        board.addBoardListener(score);
+        board.addBoardListener(pieces);
+        board.clear();
+        while (!board.isGameOver() && engine.getTick() < myMaxTicks) {
+            if (pieces.takeNewPiece()) {
+                myPolicy.playPiece(engine, random);
+            }
+            engine.tick();
+        }
+        return new GameResult(theSeed, score.getTotalLines(), score.getScore(),
+                              pieces.getCount(), engine.getTick());
+    }
+
+    /**
+     * Plays a batch of games with a random policy and prints the summary.
+     * 
+     * @param theArgs Optionally the number of games and the first seed.
+     */
+    public static void main(final String... theArgs) {
+        int games = DEFAULT_GAMES;
+        long seed = 0;
+        if (theArgs.length > 0) {
+            games = Integer.parseInt(theArgs[0]);
+        }
+        if (theArgs.length > 1) {
+            seed = Long.parseLong(theArgs[1]);
+        }
+        final long start = System.nanoTime();
+        final BatchSummary summary = new BatchRunner(new RandomPolicy()).run(games, seed);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(summary);
+        System.out.printf("%.2f s, %.0f games/s on %d threads%n", seconds,
+                          summary.getGames() / seconds,
+                          ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * Counts the pieces locked into a board and notices each new piece.
+     */
+    private static final class PieceCounter extends BoardAdapter {
+
+        /**
+         * The pieces locked so far.
+         */
+        private int myCount;
+
+        /**
+         * Whether a piece has spawned that the policy has not played.
+         */
+        private boolean myNewPiece = true;
+
+        @Override
+        public void onPieceLocked(final PieceLocked thePiece) {
+            myCount++;
+            myNewPiece = true;
+        }
+
+        /**
+         * Returns the pieces locked so far.
+         * 
+         * @return The piece count.
+         */
+        public int getCount() {
+            return myCount;
+        }
+
+        /**
+         * Tests for a new piece, consuming it.
+         * 
+         * @return True if a piece has spawned since the last call.
+         */
+        public boolean takeNewPiece() {
+            final boolean result = myNewPiece;
+            myNewPiece = false;
+            return result;
+        }
+
+    } // end inner class PieceCounter
+
+    /**
+     * Plays a range of seeds, splitting the range while it is large.
+     */
+    @SuppressWarnings("serial")
+    private final class BatchTask extends RecursiveTask<BatchSummary> {
+
+        /**
+         * The first seed of the range.
+         */
+        private final long myFrom;
+
+        /**
+         * One past the last seed of the range.
+         */
+        private final long myTo;
+
+        /**
+         * Constructs a task for a range of seeds.
+         * 
+         * @param theFrom The first seed of the range.
+         * @param theTo One past the last seed of the range.
+         */
+        BatchTask(final long theFrom, final long theTo) {
+            super();
+            myFrom = theFrom;
+            myTo = theTo;
+        }
+
+        @Override
+        protected BatchSummary compute() {
+            final BatchSummary result;
+            if (myTo - myFrom <= GAMES_PER_TASK) {
+                result = new BatchSummary();
+                for (long seed = myFrom; seed < myTo; seed++) {
+                    result.add(play(seed));
+                }
+            } else {
+                final long middle = myFrom + (myTo - myFrom) / 2;
+                final BatchTask left = new BatchTask(myFrom, middle);
+                left.fork();
+                result = new BatchTask(middle, myTo).compute();
+                result.merge(left.join());
+            }
+            return result;
+        }
+
+    } // end inner class BatchTask
+
+}
@@ -0,0 +1,116 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package simulation;
+
+/**
+ * Summary statistics of a batch of simulated games.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class BatchSummary {
+
+    /**
+     * Lines cleared per game.
+     */
+    private final Statistic myLines = new Statistic();
+
+    /**
+     * Score per game.
+     */
+    private final Statistic myScore = new Statistic();
+
+    /**
+     * Pieces placed per game.
+     */
+    private final Statistic myPieces = new Statistic();
+
+    /**
+     * Game length in engine ticks.
+     */
+    private final Statistic myTicks = new Statistic();
+
+    /**
+     * Returns the number of games summarized.
+     * 
+     * @return The number of games.
+     */
+    public long getGames() {
+        return myScore.getCount();
+    }
+
+    /**
+     * Returns the lines cleared per game.
+     * 
+     * @return The line statistic.
+     */
+    public Statistic getLines() {
+        return myLines;
+    }
+
+    /**
+     * Returns the score per game.
+     * 
+     * @return The score statistic.
+     */
+    public Statistic getScore() {
+        return myScore;
+    }
+
+    /**
+     * Returns the pieces placed per game.
+     * 
+     * @return The piece statistic.
+     */
+    public Statistic getPieces() {
+        return myPieces;
+    }
+
+    /**
+     * Returns the game length in engine ticks.
+     * 
+     * @return The tick statistic.
+     */
+    public Statistic getTicks() {
+        return myTicks;
+    }
+
+    /**
+     * Adds the result of one game.
+     * 
+     * @param theResult The game result.
+     */
+    public void add(final GameResult theResult) {
+        myLines.add(theResult.getLines());
+        myScore.add(theResult.getScore());
+        myPieces.add(theResult.getPieces());
+        myTicks.add(theResult.getTicks());
+    }
+
+    /**
+     * Adds every game of another summary.
+     * 
+     * @param theOther The summary to merge into this one.
+     */
+    public void merge(final BatchSummary theOther) {
+        myLines.merge(theOther.myLines);
+        myScore.merge(theOther.myScore);
+        myPieces.merge(theOther.myPieces);
+        myTicks.merge(theOther.myTicks);
+    }
+
+    @Override
+    public String toString() {
+        final String newLine = System.lineSeparator();
+        return "games  " + getGames() + newLine
+               + "lines  " + myLines + newLine
+               + "score  " + myScore + newLine
+               + "pieces " + myPieces + newLine
+               + "ticks  " + myTicks;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package simulation;
+
+/**
+ * The outcome of one simulated game.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class GameResult {
+
+    /**
+     * The seed the game was played with.
+     */
+    private final long mySeed;
+
+    /**
+     * The lines cleared.
+     */
+    private final int myLines;
+
+    /**
+     * The final score.
+     */
+    private final int myScore;
+
+    /**
+     * The pieces locked into the board.
+     */
+    private final int myPieces;
+
+    /**
+     * The length of the game in engine ticks.
+     */
+    private final long myTicks;
+
+    /**
+     * Constructs a game result.
+     * 
+     * @param theSeed The seed the game was played with.
+     * @param theLines The lines cleared.
+     * @param theScore The final score.
+     * @param thePieces The pieces locked into the board.
+     * @param theTicks The length of the game in engine ticks.
+     */
+    public GameResult(final long theSeed, final int theLines, final int theScore,
+                      final int thePieces, final long theTicks) {
+        mySeed = theSeed;
+        myLines = theLines;
+        myScore = theScore;
+        myPieces = thePieces;
+        myTicks = theTicks;
+    }
+
+    /**
+     * Returns the seed the game was played with.
+     * 
+     * @return The seed.
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Returns the lines cleared.
+     * 
+     * @return The lines cleared.
+     */
+    public int getLines() {
+        return myLines;
+    }
+
+    /**
+     * Returns the final score.
+     * 
+     * @return The score.
+     */
+    public int getScore() {
+        return myScore;
+    }
+
+    /**
+     * Returns the pieces locked into the board.
+     * 
+     * @return The pieces placed.
+     */
+    public int getPieces() {
+        return myPieces;
+    }
+
+    /**
+     * Returns the length of the game in engine ticks.
+     * 
+     * @return The game length.
+     */
+    public long getTicks() {
+        return myTicks;
+    }
+
+    @Override
+    public String toString() {
+        return "seed " + mySeed + ": " + myLines + " lines, " + myScore + " points, "
+               + myPieces + " pieces, " + myTicks + " ticks";
+    }
+
+}
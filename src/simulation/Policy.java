@@ -0,0 +1,33 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package simulation;
+
+import java.util.SplittableRandom;
+
+import model.GameEngine;
+
+/**
+ * Decides how to play each piece of a simulated game.
+ * 
+ * A policy is shared by every game of a batch, which run on many threads at
+ * once, so it must not keep per-game state in its own fields.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public interface Policy {
+
+    /**
+     * Called once for each new piece.  Moves the piece by executing
+     * commands on the engine, on the calling thread.
+     * 
+     * @param theEngine The engine running the game.
+     * @param theRandom The random source of this game.
+     */
+    void playPiece(GameEngine theEngine, SplittableRandom theRandom);
+
+}
@@ -0,0 +1,45 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package simulation;
+
+import java.util.SplittableRandom;
+
+import model.BoardCommand;
+import model.GameEngine;
+
+/**
+ * Plays each piece at a random rotation and column, then drops it.
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class RandomPolicy implements Policy {
+
+    /**
+     * The number of distinct rotations.
+     */
+    private static final int ROTATIONS = 4;
+
+    @Override
+    public void playPiece(final GameEngine theEngine, final SplittableRandom theRandom) {
+        final int width = theEngine.getBoard().getWidth();
+        final int rotations = theRandom.nextInt(ROTATIONS);
+        final int shift = theRandom.nextInt(width) - width / 2;
+        for (int i = 0; i < rotations; i++) {
+            theEngine.execute(BoardCommand.ROTATE_CW);
+        }
+        for (int i = 0; i < Math.abs(shift); i++) {
+            if (shift < 0) {
+                theEngine.execute(BoardCommand.LEFT);
+            } else {
+                theEngine.execute(BoardCommand.RIGHT);
+            }
+        }
+        theEngine.execute(BoardCommand.DROP);
+    }
+
+}
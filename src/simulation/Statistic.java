@@ -0,0 +1,140 @@
+/*
+ * TCSS 305
+ * 
+ * An implementation of the classic game "Tetris".
+ */
+
+package simulation;
+
+/**
+ * Accumulates the count, mean, spread and range of a series of values.
+ * 
+ * Not thread safe; each thread accumulates its own statistic and the
+ * results are combined with merge().
+ * 
+ * @author Justin Arnett (jarnett@uw.edu)
+ * @version Winter 2015
+ */
+public final class Statistic {
+
+    /**
+     * The number of values added.
+     */
+    private long myCount;
+
+    /**
+     * The sum of the values.
+     */
+    private double mySum;
+
+    /**
+     * The sum of the squares of the values.
+     */
+    private double mySumOfSquares;
+
+    /**
+     * The smallest value.
+     */
+    private double myMin = Double.POSITIVE_INFINITY;
+
+    /**
+     * The largest value.
+     */
+    private double myMax = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Returns the number of values added.
+     * 
+     * @return The count.
+     */
+    public long getCount() {
+        return myCount;
+    }
+
+    /**
+     * Returns the sum of the values.
+     * 
+     * @return The sum.
+     */
+    public double getSum() {
+        return mySum;
+    }
+
+    /**
+     * Returns the mean of the values.
+     * 
+     * @return The mean, or zero if no values were added.
+     */
+    public double getMean() {
+        double result = 0;
+        if (myCount > 0) {
+            result = mySum / myCount;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the population standard deviation of the values.
+     * 
+     * @return The standard deviation, or zero if no values were added.
+     */
+    public double getStandardDeviation() {
+        double result = 0;
+        if (myCount > 0) {
+            final double mean = getMean();
+            result = Math.sqrt(Math.max(0, mySumOfSquares / myCount - mean * mean));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the smallest value.
+     * 
+     * @return The minimum, or positive infinity if no values were added.
+     */
+    public double getMin() {
+        return myMin;
+    }
+
+    /**
+     * Returns the largest value.
+     * 
+     * @return The maximum, or negative infinity if no values were added.
+     */
+    public double getMax() {
+        return myMax;
+    }
+
+    /**
+     * Adds a value.
+     * 
+     * @param theValue The value to add.
+     */
+    public void add(final double theValue) {
+        myCount++;
+        mySum += theValue;
+        mySumOfSquares += theValue * theValue;
+        myMin = Math.min(myMin, theValue);
+        myMax = Math.max(myMax, theValue);
+    }
+
+    /**
+     * Adds every value of another statistic.
+     * 
+     * @param theOther The statistic to merge into this one.
+     */
+    public void merge(final Statistic theOther) {
+        myCount += theOther.myCount;
+        mySum += theOther.mySum;
+        mySumOfSquares += theOther.mySumOfSquares;
+        myMin = Math.min(myMin, theOther.myMin);
+        myMax = Math.max(myMax, theOther.myMax);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean %.1f, sd %.1f, min %.0f, max %.0f",
+                             getMean(), getStandardDeviation(), myMin, myMax);
+    }
+
+}